@@ -0,0 +1,74 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BookingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Services {
+        BookingService bookingService;
+        LocalDateTime firstFreeStart;
+        final AtomicLong created = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void setUp(SeededContext context) {
+            bookingService = context.bean(BookingService.class);
+            // Новые бронирования в статусе WAITING не пересекаются с подтвержденными
+            firstFreeStart = LocalDateTime.now().plusYears(1).truncatedTo(ChronoUnit.HOURS);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class StateFilter {
+        @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED", "CANCELED"})
+        public String state;
+    }
+
+    @Benchmark
+    public BookingResponseDto createBooking(SeededContext context, Services services) {
+        long itemId = context.dataSet.randomItem();
+        // Недоступные вещи (каждая десятая) отклоняются валидацией, берем соседнюю
+        if (itemId % 10 == 0) {
+            itemId--;
+        }
+        LocalDateTime start = services.firstFreeStart.plusMinutes(services.created.incrementAndGet());
+        BookingRequestDto request = BookingRequestDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(start.plusHours(1))
+                .build();
+        return services.bookingService.createBooking(context.dataSet.bookerFor(itemId, 1), request);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> getOwnerBookings(SeededContext context, Services services,
+                                                     StateFilter filter) {
+        return services.bookingService.getOwnerBookings(context.dataSet.randomUser(), filter.state,
+                0, 20, null);
+    }
+}
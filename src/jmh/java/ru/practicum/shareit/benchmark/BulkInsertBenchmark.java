@@ -0,0 +1,74 @@
+package ru.practicum.shareit.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пакетная вставка бронирований через JPA. batchSize = 1 воспроизводит прежнее поведение
+ * (отдельный INSERT на каждую строку), 50 - текущую настройку hibernate.jdbc.batch_size.
+ * Результат - время на одну вставленную строку.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class BulkInsertBenchmark {
+    private static final int ROWS = 1_000;
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    private EntityManagerFactory entityManagerFactory;
+    private LocalDateTime start;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededContext context) {
+        entityManagerFactory = context.bean(EntityManagerFactory.class);
+        start = LocalDateTime.now().plusYears(1).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertBookings(SeededContext context) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            entityManager.getTransaction().begin();
+            for (int i = 0; i < ROWS; i++) {
+                long itemId = context.dataSet.randomItem();
+                entityManager.persist(Booking.builder()
+                        .itemId(itemId)
+                        .bookerId(context.dataSet.bookerFor(itemId, i))
+                        .start(start.plusMinutes(i))
+                        .end(start.plusMinutes(i + 1))
+                        .status(BookingStatus.WAITING)
+                        .build());
+            }
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+}
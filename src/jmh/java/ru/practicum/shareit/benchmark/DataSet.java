@@ -0,0 +1,117 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Синтетические данные для бенчмарков. Размер задается числом бронирований,
+ * остальные таблицы масштабируются от него: 50 бронирований и один комментарий на вещь,
+ * две вещи на пользователя, один запрос на пользователя, каждая четвертая вещь - ответ на запрос.
+ * Таблицы заполняются через JDBC пачками с id начиная с 1, после чего последовательности
+ * id сдвигаются за вставленные строки.
+ */
+final class DataSet {
+    static final String[] WORDS = {"дрель", "перфоратор", "лестница", "палатка", "велосипед",
+            "самокат", "шуруповерт", "пылесос", "проектор", "гитара"};
+    static final int BOOKINGS_PER_ITEM = 50;
+
+    private static final String[] TABLES = {"users", "item_requests", "items", "bookings", "comments"};
+
+    private static final int ITEMS_PER_USER = 2;
+    private static final int CHUNK_SIZE = 10_000;
+
+    final int users;
+    final int items;
+    final int requests;
+
+    private DataSet(int users, int items, int requests) {
+        this.users = users;
+        this.items = items;
+        this.requests = requests;
+    }
+
+    static DataSet seed(JdbcTemplate jdbcTemplate, int bookings) {
+        int items = Math.max(bookings / BOOKINGS_PER_ITEM, 10);
+        int users = Math.max(items / ITEMS_PER_USER, 10);
+        DataSet dataSet = new DataSet(users, items, users);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+        List<Object[]> rows = new ArrayList<>(CHUNK_SIZE);
+        for (int u = 1; u <= users; u++) {
+            rows.add(new Object[]{u, "user" + u, "user" + u + "@bench.ru"});
+            flush(jdbcTemplate, "INSERT INTO users (id, name, email) VALUES (?, ?, ?)", rows, u == users);
+        }
+
+        for (int r = 1; r <= dataSet.requests; r++) {
+            rows.add(new Object[]{r, "нужна " + WORDS[r % WORDS.length], r, Timestamp.valueOf(now.minusMinutes(r))});
+            flush(jdbcTemplate, "INSERT INTO item_requests (id, description, requestor_id, created_date) " +
+                    "VALUES (?, ?, ?, ?)", rows, r == dataSet.requests);
+        }
+
+        for (int i = 1; i <= items; i++) {
+            Object requestId = i % 4 == 0 ? (i / 4) % dataSet.requests + 1 : null;
+            rows.add(new Object[]{i, dataSet.ownerOf(i), WORDS[i % WORDS.length] + " " + i,
+                    "описание: " + WORDS[(i * 7) % WORDS.length], i % 10 != 0, requestId});
+            flush(jdbcTemplate, "INSERT INTO items (id, user_id, name, description, is_available, request_id) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)", rows, i == items);
+        }
+
+        String[] statuses = {"WAITING", "APPROVED", "REJECTED", "CANCELED"};
+        long bookingId = 0;
+        for (int i = 1; i <= items; i++) {
+            for (int b = 0; b < BOOKINGS_PER_ITEM; b++) {
+                LocalDateTime start = now.plusDays((b - BOOKINGS_PER_ITEM / 2) * 3L);
+                rows.add(new Object[]{++bookingId, Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(2)), i,
+                        dataSet.bookerFor(i, b), statuses[b % statuses.length]});
+                flush(jdbcTemplate, "INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", rows, i == items && b == BOOKINGS_PER_ITEM - 1);
+            }
+        }
+
+        for (int i = 1; i <= items; i++) {
+            rows.add(new Object[]{i, "отзыв о вещи " + i, i, dataSet.bookerFor(i, 0), Timestamp.valueOf(now)});
+            flush(jdbcTemplate, "INSERT INTO comments (id, text, item_id, author_id, created) " +
+                    "VALUES (?, ?, ?, ?, ?)", rows, i == items);
+        }
+
+        // Следующий пул id Hibernate начнется сразу после вставленных строк (как в миграции V3)
+        for (String table : TABLES) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + table + "_seq RESTART WITH " +
+                    "(SELECT COALESCE(MAX(id), 0) + 50 FROM " + table + ")");
+        }
+
+        jdbcTemplate.execute("ANALYZE");
+        return dataSet;
+    }
+
+    long ownerOf(long itemId) {
+        return (itemId - 1) / ITEMS_PER_USER + 1;
+    }
+
+    // Арендатор никогда не совпадает с владельцем вещи
+    long bookerFor(long itemId, int shift) {
+        long owner = ownerOf(itemId);
+        return (owner + shift % (users - 1)) % users + 1;
+    }
+
+    long randomUser() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1);
+    }
+
+    long randomItem() {
+        return ThreadLocalRandom.current().nextLong(1, items + 1);
+    }
+
+    private static void flush(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows, boolean last) {
+        if (rows.size() == CHUNK_SIZE || (last && !rows.isEmpty())) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Нагрузочное сравнение обычных и виртуальных потоков на GET /bookings и GET /items/search.
+ * Для каждого режима поднимается веб-контекст на случайном порту поверх H2 в памяти, заполненной DataSet,
+ * затем clients клиентских потоков шлют запросы без пауз в течение seconds секунд (первые warmup секунд
+ * не учитываются). Печатается пропускная способность и p50/p99 времени ответа по каждому эндпоинту.
+ * Аргументы: [platform|virtual|both] [bookings] [clients] [seconds] [warmup], например:
+ * mvn -Pjmh test-compile exec:exec -Djmh.main=ru.practicum.shareit.benchmark.LoadTestRunner -Djmh.args="both 100000 200 30 10"
+ */
+public final class LoadTestRunner {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String[] ENDPOINTS = {"/bookings", "/items/search"};
+    // Одинаковый пул соединений в обоих режимах, чтобы сравнивались только потоки
+    private static final int POOL_SIZE = 20;
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "both";
+        int bookings = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        int warmup = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+
+        if (Runtime.version().feature() < 21) {
+            System.out.printf("ВНИМАНИЕ: Java %s, виртуальные потоки недоступны - режим virtual " +
+                    "работает на платформенных потоках%n", Runtime.version());
+        }
+        List<String> modes = "both".equals(mode) ? List.of("platform", "virtual") : List.of(mode);
+        for (String current : modes) {
+            run(current, bookings, clients, seconds, warmup);
+        }
+    }
+
+    private static void run(String mode, int bookings, int clients, int seconds, int warmup) throws Exception {
+        String profiles = "virtual".equals(mode) ? "h2,virtual" : "h2";
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class)
+                .run("--spring.profiles.active=" + profiles,
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:shareit-load-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--spring.h2.console.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.ru.practicum.shareit=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--logging.level.org.springframework.transaction=WARN",
+                        "--logging.level.org.springframework.orm.jpa=WARN",
+                        "--logging.level.org.springframework.jdbc.datasource.init=WARN",
+                        "--logging.level.com.zaxxer.hikari=WARN");
+        try {
+            DataSet dataSet = DataSet.seed(context.getBean(JdbcTemplate.class), bookings);
+            context.getBean(ItemSearchIndex.class).rebuild();
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            drive(dataSet, baseUrl, clients, warmup);
+            List<long[]> latencies = drive(dataSet, baseUrl, clients, seconds);
+            for (int e = 0; e < ENDPOINTS.length; e++) {
+                long[] sorted = latencies.get(e);
+                Arrays.sort(sorted);
+                System.out.printf("%-8s %-14s %8.1f req/s  p50 %7.2f ms  p99 %7.2f ms  (%d запросов)%n",
+                        mode, ENDPOINTS[e], sorted.length / (double) seconds,
+                        percentile(sorted, 0.50), percentile(sorted, 0.99), sorted.length);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    // Возвращает задержки в наносекундах по каждому эндпоинту
+    private static List<long[]> drive(DataSet dataSet, String baseUrl, int clients, int seconds) throws Exception {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<List<List<Long>>>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                futures.add(pool.submit(() -> {
+                    List<List<Long>> local = List.of(new ArrayList<>(), new ArrayList<>());
+                    while (System.nanoTime() < deadline) {
+                        int endpoint = ThreadLocalRandom.current().nextInt(ENDPOINTS.length);
+                        HttpRequest request = request(dataSet, baseUrl, endpoint);
+                        long started = System.nanoTime();
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        long elapsed = System.nanoTime() - started;
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException(request.uri() + " вернул " + response.statusCode());
+                        }
+                        local.get(endpoint).add(elapsed);
+                    }
+                    return local;
+                }));
+            }
+            List<List<Long>> merged = List.of(new ArrayList<>(), new ArrayList<>());
+            for (Future<List<List<Long>>> future : futures) {
+                List<List<Long>> local = future.get();
+                for (int e = 0; e < ENDPOINTS.length; e++) {
+                    merged.get(e).addAll(local.get(e));
+                }
+            }
+            return merged.stream()
+                    .map(values -> values.stream().mapToLong(Long::longValue).toArray())
+                    .toList();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static HttpRequest request(DataSet dataSet, String baseUrl, int endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String uri = endpoint == 0
+                ? baseUrl + "/bookings?state=ALL&size=20"
+                : baseUrl + "/items/search?size=20&text="
+                + URLEncoder.encode(DataSet.WORDS[random.nextInt(DataSet.WORDS.length)], StandardCharsets.UTF_8);
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header(USER_ID_HEADER, String.valueOf(dataSet.randomUser()))
+                .GET()
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
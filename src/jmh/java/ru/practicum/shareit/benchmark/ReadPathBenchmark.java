@@ -0,0 +1,77 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Списочные эндпоинты на уровне сервисов с разным размером страницы: при размере 100
+ * становится видна стоимость одной строки (аллокации смотреть в gc.alloc.rate.norm).
+ * У владельца в DataSet две вещи и 100 бронирований, у арендатора - около 100 бронирований.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ReadPathBenchmark {
+    @Param({"20", "100"})
+    public int size;
+
+    private BookingService bookingService;
+    private ItemService itemService;
+    private ItemRequestService itemRequestService;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededContext context) {
+        bookingService = context.bean(BookingService.class);
+        itemService = context.bean(ItemService.class);
+        itemRequestService = context.bean(ItemRequestService.class);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> ownerBookings(SeededContext context) {
+        return bookingService.getOwnerBookings(context.dataSet.randomUser(), "ALL", 0, size, null);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> bookerBookings(SeededContext context) {
+        return bookingService.getUserBookings(context.dataSet.randomUser(), "ALL", 0, size, null);
+    }
+
+    @Benchmark
+    public List<ItemDto> ownerItems(SeededContext context) {
+        return itemService.getUserItems(context.dataSet.randomUser(), 0, size, null);
+    }
+
+    // Один комментарий на вещь: в результате виден в основном сам запрос страницы
+    @Benchmark
+    public List<CommentDto> itemComments(SeededContext context) {
+        return itemService.getItemComments(context.dataSet.randomItem(), 0, size, null);
+    }
+
+    @Benchmark
+    public List<ItemRequestWithItemsDto> otherRequests(SeededContext context) {
+        return itemRequestService.getAllItemRequests(context.dataSet.randomUser(), 0, size, null);
+    }
+}
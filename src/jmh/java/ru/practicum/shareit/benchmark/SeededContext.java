@@ -0,0 +1,65 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+
+/**
+ * Контекст приложения без веб-слоя поверх H2 в памяти, заполненной DataSet нужного размера.
+ * Поднимается один раз на trial; отладочное логирование SQL из application.properties отключается.
+ */
+@State(Scope.Benchmark)
+public class SeededContext {
+    @Param({"10000", "1000000"})
+    public int bookings;
+
+    DataSet dataSet;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                // Профиль h2 - схема из миграций Flyway, как в рабочей базе. Аргументы командной строки,
+                // чтобы перекрыть значения из application.properties
+                .run("--spring.profiles.active=h2",
+                        "--spring.datasource.url=jdbc:h2:mem:shareit-bench-" + bookings + ";DB_CLOSE_DELAY=-1",
+                        "--spring.h2.console.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.ru.practicum.shareit=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--logging.level.org.springframework.transaction=WARN",
+                        "--logging.level.org.springframework.orm.jpa=WARN",
+                        "--logging.level.org.springframework.jdbc.datasource.init=WARN",
+                        "--logging.level.com.zaxxer.hikari=WARN");
+
+        dataSet = DataSet.seed(context.getBean(JdbcTemplate.class), bookings);
+        // Индекс строится при старте, когда таблицы еще пусты
+        context.getBean(ItemSearchIndex.class).rebuild();
+        // Сводки бронирований тоже: без них каждое чтение вещей уходит в запасной запрос к bookings
+        context.getBean(ItemBookingSummaryService.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -1,13 +1,24 @@
 package ru.practicum.shareit.booking.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingExportFormat;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.pagination.PageList;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -33,10 +44,24 @@ public class BookingController {
         return bookingService.updateBookingStatus(userId, bookingId, approved);
     }
 
+    // Пакет применяется целиком: при любой ошибке ни один статус не меняется
+    @PatchMapping("/batch")
+    public List<BookingResponseDto> updateBookingStatuses(
+            @RequestHeader(USER_ID_HEADER) Long userId,
+            @RequestBody List<BookingDecisionDto> decisions) {
+        return bookingService.updateBookingStatuses(userId, decisions);
+    }
+
+    // Условный GET: при совпадении If-None-Match с ETag - 304 без сборки ответа
     @GetMapping("/{bookingId}")
     public BookingResponseDto getBooking(
             @RequestHeader(USER_ID_HEADER) Long userId,
-            @PathVariable Long bookingId) {
+            @PathVariable Long bookingId,
+            WebRequest webRequest) {
+        String etag = bookingService.getBookingETag(userId, bookingId);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
         return bookingService.getBooking(userId, bookingId);
     }
 
@@ -45,9 +70,12 @@ public class BookingController {
             @RequestHeader(USER_ID_HEADER) Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
-
-        return bookingService.getUserBookings(userId, state, from, size);
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response) {
+        List<BookingResponseDto> bookings = bookingService.getUserBookings(userId, state, from, size, cursor);
+        setNextCursor(response, PageList.USER_BOOKINGS, bookings, size);
+        return bookings;
     }
 
     @GetMapping("/owner")
@@ -55,8 +83,33 @@ public class BookingController {
             @RequestHeader(USER_ID_HEADER) Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
-        return bookingService.getOwnerBookings(userId, state, from, size);
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response) {
+        List<BookingResponseDto> bookings = bookingService.getOwnerBookings(userId, state, from, size, cursor);
+        setNextCursor(response, PageList.OWNER_BOOKINGS, bookings, size);
+        return bookings;
+    }
+
+    // Все бронирования одним потоком NDJSON или CSV, без пагинации и без накопления в памяти
+    @GetMapping("/export")
+    public void exportUserBookings(
+            @RequestHeader(USER_ID_HEADER) Long userId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) {
+        BookingExportFormat exportFormat = BookingExportFormat.fromString(format);
+        bookingService.exportUserBookings(userId, exportFormat,
+                () -> openExport(response, exportFormat, "bookings"));
+    }
+
+    @GetMapping("/owner/export")
+    public void exportOwnerBookings(
+            @RequestHeader(USER_ID_HEADER) Long userId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) {
+        BookingExportFormat exportFormat = BookingExportFormat.fromString(format);
+        bookingService.exportOwnerBookings(userId, exportFormat,
+                () -> openExport(response, exportFormat, "owner-bookings"));
     }
 
     @PatchMapping("/{bookingId}/cancel")
@@ -65,5 +118,26 @@ public class BookingController {
             @PathVariable Long bookingId) {
         return bookingService.cancelBooking(userId, bookingId);
     }
-}
 
+    private Writer openExport(HttpServletResponse response, BookingExportFormat format, String fileName) {
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + fileName + "." + format.getExtension() + "\"");
+        try {
+            return response.getWriter();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Курсор следующей страницы отдается, только если текущая страница заполнена
+    private void setNextCursor(HttpServletResponse response, PageList list, List<BookingResponseDto> bookings,
+                               Integer size) {
+        if (!bookings.isEmpty() && bookings.size() == size) {
+            BookingResponseDto last = bookings.get(bookings.size() - 1);
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER,
+                    PageCursor.of(list, last.getStart(), last.getId()).encode());
+        }
+    }
+}
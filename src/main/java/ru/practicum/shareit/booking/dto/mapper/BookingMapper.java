@@ -5,11 +5,15 @@ import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRow;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -37,6 +41,32 @@ public class BookingMapper {
                 .build();
     }
 
+    // DTO вещи и арендатора создаются один раз на страницу: строки одной вещи и одного арендатора их делят
+    public List<BookingResponseDto> mapRowsToResponseDtoList(List<BookingRow> rows) {
+        Map<Long, ItemDto> items = new HashMap<>();
+        Map<Long, UserDto> bookers = new HashMap<>();
+        List<BookingResponseDto> result = new ArrayList<>(rows.size());
+        for (BookingRow row : rows) {
+            result.add(BookingResponseDto.builder()
+                    .id(row.id())
+                    .start(row.start())
+                    .end(row.end())
+                    .status(row.status())
+                    .item(items.computeIfAbsent(row.itemId(), itemId -> ItemDto.builder()
+                            .id(itemId)
+                            .owner(row.ownerId())
+                            .name(row.itemName())
+                            .description(row.itemDescription())
+                            .available(row.itemAvailable())
+                            .requestId(row.itemRequestId())
+                            .build()))
+                    .booker(bookers.computeIfAbsent(row.bookerId(),
+                            bookerId -> new UserDto(bookerId, row.bookerName(), row.bookerEmail())))
+                    .build());
+        }
+        return result;
+    }
+
     public BookingShortDto mapToShortDto(Booking booking) {
         if (booking == null) return null;
         return BookingShortDto.builder()
@@ -45,6 +75,14 @@ public class BookingMapper {
                 .build();
     }
 
+    public BookingShortDto mapToShortDto(Long bookingId, Long bookerId) {
+        if (bookingId == null) return null;
+        return BookingShortDto.builder()
+                .id(bookingId)
+                .bookerId(bookerId)
+                .build();
+    }
+
     public List<BookingResponseDto> mapToResponseDtoList(
             List<Booking> bookings,
             Function<Long, ItemDto> itemDtoProvider,
@@ -12,10 +12,17 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_booker_start", columnList = "booker_id, start_date, id"),
+        @Index(name = "idx_bookings_booker_status_start", columnList = "booker_id, status, start_date, id"),
+        @Index(name = "idx_bookings_item_start", columnList = "item_id, start_date, id"),
+        @Index(name = "idx_bookings_item_end", columnList = "item_id, end_date"),
+        @Index(name = "idx_bookings_item_status_end", columnList = "item_id, status, end_date")
+})
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -33,4 +40,9 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false, length = 20)
     BookingStatus status;
+
+    // Версия для ETag; массовые UPDATE увеличивают ее явно
+    @Version
+    @Column(name = "version", nullable = false)
+    long version;
 }
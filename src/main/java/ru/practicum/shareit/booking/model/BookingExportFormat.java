@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking.model;
+
+import ru.practicum.shareit.exception.BookingValidationException;
+
+public enum BookingExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    BookingExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static BookingExportFormat fromString(String format) {
+        try {
+            return BookingExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BookingValidationException("Неизвестный формат выгрузки: " + format);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+// Строка выгрузки бронирований: данные вещи и арендатора подтягиваются JOIN в том же запросе
+public record BookingExportRow(Long id,
+                               LocalDateTime start,
+                               LocalDateTime end,
+                               BookingStatus status,
+                               Long itemId,
+                               String itemName,
+                               Long ownerId,
+                               Long bookerId,
+                               String bookerName) {
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+// Строка списка бронирований: поля бронирования, вещи и арендатора одним запросом с JOIN, без сущностей
+public record BookingRow(Long id,
+                         LocalDateTime start,
+                         LocalDateTime end,
+                         BookingStatus status,
+                         Long itemId,
+                         Long ownerId,
+                         String itemName,
+                         String itemDescription,
+                         Boolean itemAvailable,
+                         Long itemRequestId,
+                         Long bookerId,
+                         String bookerName,
+                         String bookerEmail) {
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking.model;
+
+// Версии всего, из чего собирается ответ GET /bookings/{id}, и участники бронирования для проверки доступа
+public record BookingVersion(Long bookerId, Long ownerId, long bookingVersion, long itemVersion,
+                             long bookerVersion) {
+}
@@ -0,0 +1,5 @@
+package ru.practicum.shareit.booking.model;
+
+// Бронирование вместе с владельцем вещи, загруженные одним запросом с JOIN
+public record BookingWithOwner(Booking booking, Long ownerId) {
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+// Ближайшее окончание еще не завершившегося бронирования вещи
+public record ItemBookingEnd(Long itemId, LocalDateTime end) {
+}
@@ -1,26 +1,92 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingExportRow;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingVersion;
+import ru.practicum.shareit.booking.model.BookingWithOwner;
+import ru.practicum.shareit.booking.model.ItemBookingEnd;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    // Все бронирования пользователя с пагинацией
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long bookerId, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    String EXPORT_FETCH_SIZE = "500";
 
-    // Все бронирования вещей владельца с пагинацией
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.itemId IN (SELECT i.id FROM Item i WHERE i.userId = :ownerId) " +
-            "ORDER BY b.start DESC")
-    List<Booking> findAllByItemOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
+    // Выгрузка: потоковое чтение строк без сущностей в контексте, размер пачки задает hint fetch size.
+    // Поток нужно закрыть и читать внутри транзакции
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new ru.practicum.shareit.booking.model.BookingExportRow(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, i.userId, u.id, u.name) " +
+            "FROM Booking b JOIN Item i ON i.id = b.itemId JOIN User u ON u.id = b.bookerId " +
+            "WHERE i.userId = :ownerId " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<BookingExportRow> streamByItemOwnerId(@Param("ownerId") Long ownerId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new ru.practicum.shareit.booking.model.BookingExportRow(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, i.userId, u.id, u.name) " +
+            "FROM Booking b JOIN Item i ON i.id = b.itemId JOIN User u ON u.id = b.bookerId " +
+            "WHERE b.bookerId = :bookerId " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<BookingExportRow> streamByBookerId(@Param("bookerId") Long bookerId);
+
+    // Версии бронирования, вещи и арендатора одним запросом для условного GET
+    @Query("SELECT new ru.practicum.shareit.booking.model.BookingVersion(" +
+            "b.bookerId, i.userId, b.version, i.version, u.version) " +
+            "FROM Booking b JOIN Item i ON i.id = b.itemId JOIN User u ON u.id = b.bookerId " +
+            "WHERE b.id = :bookingId")
+    Optional<BookingVersion> findVersionById(@Param("bookingId") Long bookingId);
+
+    // Бронирования с владельцами вещей для пакетного подтверждения
+    @Query("SELECT new ru.practicum.shareit.booking.model.BookingWithOwner(b, i.userId) " +
+            "FROM Booking b JOIN Item i ON i.id = b.itemId " +
+            "WHERE b.id IN :ids")
+    List<BookingWithOwner> findAllWithOwnerByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Решение владельца одним UPDATE: только ожидающее бронирование и только вещи этого владельца.
+    // 0 строк - бронирования нет, владелец чужой или статус уже изменен
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id = :bookingId " +
+            "AND b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "AND b.itemId IN (SELECT i.id FROM Item i WHERE i.userId = :ownerId)")
+    int decideWaiting(@Param("bookingId") Long bookingId,
+                      @Param("ownerId") Long ownerId,
+                      @Param("status") BookingStatus status);
+
+    // Отмена ожидающего бронирования его автором одним UPDATE
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.model.BookingStatus.CANCELED, " +
+            "b.version = b.version + 1 " +
+            "WHERE b.id = :bookingId " +
+            "AND b.bookerId = :bookerId " +
+            "AND b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING")
+    int cancelWaiting(@Param("bookingId") Long bookingId, @Param("bookerId") Long bookerId);
+
+    // Смена статуса набора бронирований; меняются только ожидающие, число строк сверяется вызывающим
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id IN :ids AND b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING")
+    int updateWaitingStatus(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
 
     // Проверка пересекающихся бронирований
     @Query("SELECT b FROM Booking b " +
@@ -32,10 +98,49 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                                   @Param("startDate") LocalDateTime startDate,
                                                   @Param("endDate") LocalDateTime endDate);
 
+    // Подтвержденные бронирования нескольких вещей, заканчивающиеся позже указанного момента
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.itemId IN :itemIds " +
+            "AND b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "AND b.end > :after")
+    List<Booking> findApprovedByItemIdInAndEndAfter(@Param("itemIds") Collection<Long> itemIds,
+                                                    @Param("after") LocalDateTime after);
+
+    // Вещи, у которых есть незавершенные подтвержденные бронирования пользователя
+    @Query("SELECT DISTINCT b.itemId FROM Booking b " +
+            "WHERE b.bookerId = :bookerId " +
+            "AND b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "AND b.end > :after")
+    List<Long> findItemIdsWithApprovedBookingsOf(@Param("bookerId") Long bookerId,
+                                                 @Param("after") LocalDateTime after);
+
+    // Подтвержденные бронирования вещи, которые еще не закончились
+    List<Booking> findByItemIdAndStatusAndEndAfter(Long itemId, BookingStatus status, LocalDateTime end);
+
     Optional<Booking> findFirstByItemIdAndEndBeforeOrderByEndDesc(Long itemId, LocalDateTime end);
 
     Optional<Booking> findFirstByItemIdAndStartAfterOrderByStartAsc(Long itemId, LocalDateTime start);
 
+    // Ближайшее окончание еще не завершившихся бронирований: после него меняется последнее бронирование вещи
+    @Query("SELECT new ru.practicum.shareit.booking.model.ItemBookingEnd(b.itemId, MIN(b.end)) " +
+            "FROM Booking b WHERE b.itemId IN :itemIds AND b.end >= :now GROUP BY b.itemId")
+    List<ItemBookingEnd> findEarliestEndsNotBefore(@Param("itemIds") Collection<Long> itemIds,
+                                                   @Param("now") LocalDateTime now);
+
+    // Последнее (завершенное) и следующее (будущее) бронирование для каждой вещи одним запросом
+    @Query(value = "SELECT l.id, l.start_date, l.end_date, l.item_id, l.booker_id, l.status, l.version FROM (" +
+            "SELECT b.*, ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.end_date DESC, b.id DESC) AS rn " +
+            "FROM bookings b WHERE b.item_id IN (:itemIds) AND b.end_date < :now) l " +
+            "WHERE l.rn = 1 " +
+            "UNION ALL " +
+            "SELECT n.id, n.start_date, n.end_date, n.item_id, n.booker_id, n.status, n.version FROM (" +
+            "SELECT b.*, ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date ASC, b.id ASC) AS rn " +
+            "FROM bookings b WHERE b.item_id IN (:itemIds) AND b.start_date > :now) n " +
+            "WHERE n.rn = 1",
+            nativeQuery = true)
+    List<Booking> findLastAndNextBookings(@Param("itemIds") Collection<Long> itemIds,
+                                          @Param("now") LocalDateTime now);
+
     @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END " +
             "FROM Booking b " +
             "WHERE b.bookerId = :bookerId " +  // bookerId
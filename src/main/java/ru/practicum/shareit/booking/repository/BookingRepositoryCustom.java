@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.BookingFilterState;
+import ru.practicum.shareit.booking.model.BookingRow;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+
+    // Бронирования пользователя с фильтрацией по состоянию на стороне БД,
+    // по убыванию (start, id) начиная после курсора
+    List<BookingRow> findByBookerIdAndState(Long bookerId, BookingFilterState state, LocalDateTime now,
+                                            LocalDateTime beforeStart, Long beforeId, Pageable pageable);
+
+    // Бронирования вещей владельца с фильтрацией по состоянию на стороне БД,
+    // по убыванию (start, id) начиная после курсора
+    List<BookingRow> findByItemOwnerIdAndState(Long ownerId, BookingFilterState state, LocalDateTime now,
+                                               LocalDateTime beforeStart, Long beforeId, Pageable pageable);
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.BookingFilterState;
+import ru.practicum.shareit.booking.model.BookingRow;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.pagination.RowQueries;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+    // Списки бронирований читаются строками BookingRow: вещь и арендатор в том же запросе
+    private static final String BOOKING_ROW_SELECT = "SELECT new ru.practicum.shareit.booking.model.BookingRow(" +
+            "b.id, b.start, b.end, b.status, i.id, i.userId, i.name, i.description, i.available, i.requestId, " +
+            "u.id, u.name, u.email) " +
+            "FROM Booking b JOIN Item i ON i.id = b.itemId JOIN User u ON u.id = b.bookerId ";
+    private static final String KEYSET_ORDER =
+            "AND (b.start < :beforeStart OR (b.start = :beforeStart AND b.id < :beforeId)) " +
+            "ORDER BY b.start DESC, b.id DESC";
+
+    // Текст запроса на каждое состояние собирается один раз
+    private static final Map<BookingFilterState, String> BOOKER_QUERIES = queries("b.bookerId = :userId ");
+    private static final Map<BookingFilterState, String> OWNER_QUERIES = queries("i.userId = :userId ");
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookingRow> findByBookerIdAndState(Long bookerId, BookingFilterState state, LocalDateTime now,
+                                                   LocalDateTime beforeStart, Long beforeId, Pageable pageable) {
+        return findRows(BOOKER_QUERIES.get(state), bookerId, state, now, beforeStart, beforeId, pageable);
+    }
+
+    @Override
+    public List<BookingRow> findByItemOwnerIdAndState(Long ownerId, BookingFilterState state, LocalDateTime now,
+                                                      LocalDateTime beforeStart, Long beforeId, Pageable pageable) {
+        return findRows(OWNER_QUERIES.get(state), ownerId, state, now, beforeStart, beforeId, pageable);
+    }
+
+    private List<BookingRow> findRows(String jpql, Long userId, BookingFilterState state, LocalDateTime now,
+                                      LocalDateTime beforeStart, Long beforeId, Pageable pageable) {
+        TypedQuery<BookingRow> query = RowQueries.query(entityManager, jpql, BookingRow.class)
+                .setParameter("userId", userId)
+                .setParameter("beforeStart", beforeStart)
+                .setParameter("beforeId", beforeId);
+        switch (state) {
+            case CURRENT, PAST, FUTURE -> query.setParameter("now", now);
+            case WAITING -> query.setParameter("status", BookingStatus.WAITING);
+            case REJECTED -> query.setParameter("status", BookingStatus.REJECTED);
+            case CANCELED -> query.setParameter("status", BookingStatus.CANCELED);
+            case ALL -> {
+            }
+        }
+        return RowQueries.page(query, pageable);
+    }
+
+    private static Map<BookingFilterState, String> queries(String userCondition) {
+        Map<BookingFilterState, String> queries = new EnumMap<>(BookingFilterState.class);
+        for (BookingFilterState state : BookingFilterState.values()) {
+            queries.put(state, BOOKING_ROW_SELECT + "WHERE " + userCondition + stateCondition(state) + KEYSET_ORDER);
+        }
+        return queries;
+    }
+
+    private static String stateCondition(BookingFilterState state) {
+        return switch (state) {
+            case CURRENT -> "AND b.start < :now AND b.end > :now ";
+            case PAST -> "AND b.end < :now ";
+            case FUTURE -> "AND b.start > :now ";
+            case WAITING, REJECTED, CANCELED -> "AND b.status = :status ";
+            case ALL -> "";
+        };
+    }
+}
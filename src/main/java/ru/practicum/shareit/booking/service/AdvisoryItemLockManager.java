@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Транзакционные advisory-блокировки PostgreSQL: действуют для всех узлов, работающих с базой,
+ * и снимаются самой СУБД при коммите или откате. Запрос идет через соединение текущей транзакции.
+ * Ключ - пара (пространство вещей, id вещи); id больше int разделяют ключ, что только сужает параллелизм.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.item-lock.backend", havingValue = "advisory")
+public class AdvisoryItemLockManager implements ItemLockManager {
+    private static final int ITEM_LOCK_SPACE = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long timeoutMillis;
+    private final Counter contended;
+    private final Timer waitTimer;
+
+    public AdvisoryItemLockManager(JdbcTemplate jdbcTemplate,
+                                   @Value("${shareit.item-lock.timeout-ms:5000}") long timeoutMillis,
+                                   MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.timeoutMillis = timeoutMillis;
+        this.contended = meterRegistry.counter("shareit.item.lock.contended", "backend", "advisory");
+        this.waitTimer = meterRegistry.timer("shareit.item.lock.wait", "backend", "advisory");
+    }
+
+    @Override
+    public void lock(Long itemId) {
+        lockKey((int) itemId.longValue());
+    }
+
+    @Override
+    public void lockAll(Collection<Long> itemIds) {
+        TreeSet<Integer> keys = new TreeSet<>();
+        for (Long itemId : itemIds) {
+            keys.add((int) itemId.longValue());
+        }
+        keys.forEach(this::lockKey);
+    }
+
+    @Override
+    public boolean isClusterWide() {
+        return true;
+    }
+
+    private void lockKey(int key) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Блокировка вещи возможна только внутри транзакции");
+        }
+        Boolean acquired = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?, ?)",
+                Boolean.class, ITEM_LOCK_SPACE, key);
+        if (!Boolean.TRUE.equals(acquired)) {
+            contended.increment();
+            long started = System.nanoTime();
+            try {
+                // lock_timeout до конца транзакции, как и сама блокировка
+                jdbcTemplate.queryForObject("SELECT set_config('lock_timeout', ?, true)", String.class,
+                        timeoutMillis + "ms");
+                jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?, ?)::text", String.class,
+                        ITEM_LOCK_SPACE, key);
+            } catch (PessimisticLockingFailureException e) {
+                throw new ConflictException("Вещь занята параллельной операцией, повторите запрос");
+            } finally {
+                waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingExportFormat;
+import ru.practicum.shareit.booking.model.BookingExportRow;
+import ru.practicum.shareit.exception.ExportAbortedException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Пишет строки выгрузки в поток ответа по одной, не накапливая их в памяти:
+ * NDJSON - объект JSON на строку, CSV - с заголовком и экранированием текстовых полей.
+ * Выгрузка, не уложившаяся в таймаут или прерванная ошибкой чтения, завершается строкой ошибки
+ * (NDJSON - объект с полем error, CSV - строка #error) и исключением ExportAbortedException.
+ */
+@Slf4j
+@Component
+public class BookingExportWriter {
+    private static final String CSV_HEADER = "id,start,end,status,item_id,item_name,owner_id,booker_id,booker_name";
+    private static final String CSV_ERROR_MARKER = "#error";
+
+    private final ObjectWriter jsonWriter;
+    private final Duration timeout;
+
+    public BookingExportWriter(ObjectMapper objectMapper,
+                               @Value("${shareit.export.timeout-seconds:300}") long timeoutSeconds) {
+        // Все строки пишутся одним генератором без сброса после каждой; поток ответа
+        // не закрывается и сбрасывается один раз в конце выгрузки
+        this.jsonWriter = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+    }
+
+    public long write(Stream<BookingExportRow> rows, BookingExportFormat format, Writer writer) {
+        Rows source = new Rows(rows.iterator(), System.nanoTime() + timeout.toNanos());
+        try {
+            if (format == BookingExportFormat.NDJSON) {
+                writeNdjson(source, writer);
+            } else {
+                writeCsv(source, writer);
+            }
+            writer.flush();
+            return source.count;
+        } catch (IOException e) {
+            // Клиент закрыл соединение: дописывать ошибку некуда
+            throw new ExportAbortedException(
+                    String.format("Клиент прервал выгрузку после %d строк", source.count), e);
+        } catch (RuntimeException e) {
+            String message = e instanceof QueryTimeoutException
+                    ? String.format("Выгрузка прервана: превышено время выгрузки %d с, выгружено %d строк",
+                    timeout.toSeconds(), source.count)
+                    : String.format("Выгрузка прервана из-за ошибки сервера, выгружено %d строк", source.count);
+            log.error(message, e);
+            writeError(format, writer, message, source.count);
+            throw new ExportAbortedException(message, e);
+        }
+    }
+
+    private void writeNdjson(Rows rows, Writer writer) throws IOException {
+        try (SequenceWriter sequence = jsonWriter.writeValues(writer)) {
+            while (rows.hasNext()) {
+                sequence.write(rows.next());
+            }
+        }
+        // Разделитель ставится только между объектами, последняя строка тоже завершается переводом
+        if (rows.count > 0) {
+            writer.write('\n');
+        }
+    }
+
+    private void writeCsv(Rows rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            writeCsvRow(rows.next(), writer);
+        }
+    }
+
+    // Строка ошибки идет после последней целой строки выгрузки; если клиент уже отключился, ее не пишем
+    private void writeError(BookingExportFormat format, Writer writer, String message, long exported) {
+        try {
+            if (format == BookingExportFormat.NDJSON) {
+                if (exported > 0) {
+                    writer.write('\n');
+                }
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("error", message);
+                error.put("exported", exported);
+                jsonWriter.writeValue(writer, error);
+            } else {
+                writer.write(CSV_ERROR_MARKER);
+                writer.write(',');
+                writeCsvText(message, writer);
+            }
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            log.debug("Строка ошибки выгрузки не записана: {}", e.getMessage());
+        }
+    }
+
+    private void writeCsvRow(BookingExportRow row, Writer writer) throws IOException {
+        writer.write(String.valueOf(row.id()));
+        writer.write(',');
+        writer.write(row.start().toString());
+        writer.write(',');
+        writer.write(row.end().toString());
+        writer.write(',');
+        writer.write(row.status().name());
+        writer.write(',');
+        writer.write(String.valueOf(row.itemId()));
+        writer.write(',');
+        writeCsvText(row.itemName(), writer);
+        writer.write(',');
+        writer.write(String.valueOf(row.ownerId()));
+        writer.write(',');
+        writer.write(String.valueOf(row.bookerId()));
+        writer.write(',');
+        writeCsvText(row.bookerName(), writer);
+        writer.write('\n');
+    }
+
+    // Текст в кавычках, кавычки внутри удваиваются (RFC 4180)
+    private static void writeCsvText(String value, Writer writer) throws IOException {
+        writer.write('"');
+        writer.write(value == null ? "" : value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    // Строки выгрузки со счетчиком и проверкой срока перед каждой следующей строкой
+    private static class Rows {
+        private final Iterator<BookingExportRow> iterator;
+        private final long deadlineNanos;
+        private long count;
+
+        Rows(Iterator<BookingExportRow> iterator, long deadlineNanos) {
+            this.iterator = iterator;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        boolean hasNext() {
+            if (System.nanoTime() - deadlineNanos > 0) {
+                throw new QueryTimeoutException("Превышено время выгрузки");
+            }
+            return iterator.hasNext();
+        }
+
+        BookingExportRow next() {
+            BookingExportRow row = iterator.next();
+            count++;
+            return row;
+        }
+    }
+}
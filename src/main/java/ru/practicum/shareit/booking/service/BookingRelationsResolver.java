@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserMapper;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Пакетно подгружает вещи и арендаторов для страницы бронирований:
+ * собирает уникальные id и загружает их одним findAllById на каждую сущность.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingRelationsResolver {
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ItemMapper itemMapper;
+    private final UserMapper userMapper;
+
+    public BookingRelations resolve(Collection<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return new BookingRelations(Map.of(), Map.of());
+        }
+
+        Set<Long> itemIds = bookings.stream()
+                .map(Booking::getItemId)
+                .collect(Collectors.toSet());
+        Set<Long> bookerIds = bookings.stream()
+                .map(Booking::getBookerId)
+                .collect(Collectors.toSet());
+
+        Map<Long, ItemDto> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, itemMapper::mapToDto));
+        Map<Long, UserDto> bookers = userRepository.findAllById(bookerIds).stream()
+                .collect(Collectors.toMap(User::getId, userMapper::mapToDto));
+
+        // Два запроса на страницу независимо от числа бронирований
+        log.debug("Пакетная загрузка для {} бронирований: 2 запроса, {} вещей из {} id, {} пользователей из {} id",
+                bookings.size(), items.size(), itemIds.size(), bookers.size(), bookerIds.size());
+
+        return new BookingRelations(items, bookers);
+    }
+
+    public record BookingRelations(Map<Long, ItemDto> items, Map<Long, UserDto> bookers) {
+
+        public ItemDto item(Long itemId) {
+            return items.get(itemId);
+        }
+
+        public UserDto booker(Long bookerId) {
+            return bookers.get(bookerId);
+        }
+    }
+}
@@ -1,20 +1,34 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingExportFormat;
 
+import java.io.Writer;
 import java.util.List;
+import java.util.function.Supplier;
 
 public interface BookingService {
     BookingResponseDto createBooking(Long userId, BookingRequestDto bookingRequestDto);
 
     BookingResponseDto updateBookingStatus(Long userId, Long bookingId, Boolean approved);
 
+    List<BookingResponseDto> updateBookingStatuses(Long userId, List<BookingDecisionDto> decisions);
+
     BookingResponseDto getBooking(Long userId, Long bookingId);
 
-    List<BookingResponseDto> getUserBookings(Long userId, String state, Integer from, Integer size);
+    // ETag бронирования; null, если бронирования нет или у пользователя нет к нему доступа
+    String getBookingETag(Long userId, Long bookingId);
+
+    List<BookingResponseDto> getUserBookings(Long userId, String state, Integer from, Integer size, String cursor);
 
-    List<BookingResponseDto> getOwnerBookings(Long userId, String state, Integer from, Integer size);
+    List<BookingResponseDto> getOwnerBookings(Long userId, String state, Integer from, Integer size, String cursor);
 
     BookingResponseDto cancelBooking(Long userId, Long bookingId);
+
+    // Поток ответа открывается только после проверки пользователя, чтобы ошибка ушла обычным JSON
+    long exportUserBookings(Long userId, BookingExportFormat format, Supplier<Writer> output);
+
+    long exportOwnerBookings(Long userId, BookingExportFormat format, Supplier<Writer> output);
 }
@@ -1,47 +1,76 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.dto.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingExportFormat;
+import ru.practicum.shareit.booking.model.BookingExportRow;
 import ru.practicum.shareit.booking.model.BookingFilterState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingWithOwner;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingRelationsResolver.BookingRelations;
+import ru.practicum.shareit.config.MetricsConfig;
 import ru.practicum.shareit.exception.BookingNotFoundException;
 import ru.practicum.shareit.exception.BookingValidationException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UnauthorizedAccessException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.outbox.model.DomainEventType;
+import ru.practicum.shareit.outbox.service.DomainEventPublisher;
+import ru.practicum.shareit.pagination.KeysetPageRequest;
+import ru.practicum.shareit.pagination.PageList;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserSnapshot;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.Writer;
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final BookingRepository bookingRepository;
     private final BookingMapper bookingMapper;
     private final UserService userService;
     private final ItemRepository itemRepository;
     private final ItemMapper itemMapper;
     private final UserMapper userMapper;
+    private final BookingRelationsResolver bookingRelationsResolver;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ItemLockManager itemLockManager;
+    private final BookingExportWriter bookingExportWriter;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final DomainEventPublisher domainEventPublisher;
 
     @Override
     @Transactional
@@ -52,13 +81,21 @@ public class BookingServiceImpl implements BookingService {
             throw new BookingValidationException("Данные бронирования не могут быть пустыми");
         }
 
-        User booker = userService.getUserModelById(userId);
+        UserSnapshot booker = userService.getUserSnapshotById(userId);
         Item item = getItemModelById(bookingRequestDto.getItemId());
 
+        // Проверка пересечений и сохранение для одной вещи выполняются последовательно
+        itemLockManager.lock(item.getId());
         validateBookingCreation(userId, item, bookingRequestDto);
 
         Booking booking = bookingMapper.mapToBooking(bookingRequestDto, userId);
         Booking savedBooking = bookingRepository.save(booking);
+        itemBookingSummaryService.bookingCreated(savedBooking);
+        domainEventPublisher.publish(DomainEventType.BOOKING_CREATED, savedBooking.getId(), Map.of(
+                "itemId", savedBooking.getItemId(),
+                "bookerId", savedBooking.getBookerId(),
+                "start", savedBooking.getStart(),
+                "end", savedBooking.getEnd()));
 
         log.info("Бронирование с ID={} создано успешно", savedBooking.getId());
 
@@ -73,41 +110,101 @@ public class BookingServiceImpl implements BookingService {
     public BookingResponseDto updateBookingStatus(Long userId, Long bookingId, Boolean approved) {
         log.info("Обновление статуса бронирования ID={} пользователем ID={}", bookingId, userId);
 
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException(
-                        String.format("Бронирование с ID=%d не найдено", bookingId)));
-
-        Item item = getItemModelById(booking.getItemId());
-
-        if (!item.getUserId().equals(userId)) {
-            throw new UnauthorizedAccessException(
-                    String.format("Пользователь с ID=%d не является владельцем вещи", userId));
+        // Переход статуса одним условным UPDATE; причина отказа выясняется только при 0 измененных строк
+        BookingStatus newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.decideWaiting(bookingId, userId, newStatus) == 0) {
+            throw decisionFailure(userId, bookingId);
         }
 
-        if (booking.getStatus() != BookingStatus.WAITING) {
-            throw new BookingValidationException("Статус бронирования уже изменен");
-        }
+        Booking updatedBooking = getBookingModelById(bookingId);
+        Item item = getItemModelById(updatedBooking.getItemId());
 
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        Booking updatedBooking = bookingRepository.save(booking);
+        if (newStatus == BookingStatus.APPROVED) {
+            // Блокировка берется после записи (как и в пакетном подтверждении), поэтому параллельное
+            // подтверждение той же вещи дождется коммита и увидит это бронирование при проверке
+            itemLockManager.lock(item.getId());
+            checkNoApprovedOverlap(updatedBooking);
+            itemAvailabilityIndex.addApproved(updatedBooking);
+        }
+        publishStatusChanged(updatedBooking.getId(), updatedBooking.getItemId(), newStatus);
 
         log.info("Статус бронирования ID={} изменен на {}", bookingId, updatedBooking.getStatus());
 
-        User booker = userService.getUserModelById(updatedBooking.getBookerId());
+        UserSnapshot booker = userService.getUserSnapshotById(updatedBooking.getBookerId());
 
         ItemDto itemDto = itemMapper.mapToDto(item);
         UserDto userDto = userMapper.mapToDto(booker);
         return bookingMapper.mapToResponseDto(updatedBooking, itemDto, userDto);
     }
 
+    @Override
+    @Transactional
+    public List<BookingResponseDto> updateBookingStatuses(Long userId, List<BookingDecisionDto> decisions) {
+        Map<Long, BookingStatus> newStatuses = toNewStatuses(decisions);
+        log.info("Пакетное обновление статусов {} бронирований пользователем ID={}", newStatuses.size(), userId);
+
+        userService.getUserSnapshotById(userId);
+
+        // Бронирования и владельцы их вещей одним запросом; пакет применяется целиком или не применяется
+        Map<Long, BookingWithOwner> rows = bookingRepository.findAllWithOwnerByIdIn(newStatuses.keySet()).stream()
+                .collect(Collectors.toMap(row -> row.booking().getId(), Function.identity()));
+        for (Long bookingId : newStatuses.keySet()) {
+            BookingWithOwner row = rows.get(bookingId);
+            if (row == null) {
+                throw new BookingNotFoundException(String.format("Бронирование с ID=%d не найдено", bookingId));
+            }
+            if (!row.ownerId().equals(userId)) {
+                throw new UnauthorizedAccessException(String.format(
+                        "Пользователь с ID=%d не является владельцем вещи в бронировании ID=%d", userId, bookingId));
+            }
+            if (row.booking().getStatus() != BookingStatus.WAITING) {
+                throw new BookingValidationException(
+                        String.format("Статус бронирования ID=%d уже изменен", bookingId));
+            }
+        }
+
+        // Один UPDATE на каждый новый статус; меньше обновленных строк - статус успели изменить параллельно
+        Map<BookingStatus, List<Long>> idsByStatus = newStatuses.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue, () -> new EnumMap<>(BookingStatus.class),
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+        idsByStatus.forEach((status, ids) -> {
+            int updated = bookingRepository.updateWaitingStatus(ids, status);
+            if (updated != ids.size()) {
+                throw new ConflictException("Статус части бронирований изменился во время обработки");
+            }
+        });
+
+        // Вещи с подтвержденными бронированиями блокируются после записи, в порядке id, и проверяются на пересечения
+        List<Booking> toApprove = newStatuses.entrySet().stream()
+                .filter(entry -> entry.getValue() == BookingStatus.APPROVED)
+                .map(entry -> rows.get(entry.getKey()).booking())
+                .toList();
+        itemLockManager.lockAll(toApprove.stream().map(Booking::getItemId).collect(Collectors.toSet()));
+        checkNoApprovedOverlap(toApprove);
+
+        // После UPDATE контекст очищен: сущности отсоединены, статус меняется только в памяти для ответа
+        List<Booking> bookings = new ArrayList<>(newStatuses.size());
+        newStatuses.forEach((bookingId, status) -> {
+            Booking booking = rows.get(bookingId).booking();
+            booking.setStatus(status);
+            if (status == BookingStatus.APPROVED) {
+                itemAvailabilityIndex.addApproved(booking);
+            }
+            publishStatusChanged(bookingId, booking.getItemId(), status);
+            bookings.add(booking);
+        });
+
+        log.info("Статусы {} бронирований обновлены пользователем ID={}", bookings.size(), userId);
+
+        BookingRelations relations = bookingRelationsResolver.resolve(bookings);
+        return bookingMapper.mapToResponseDtoList(bookings, relations::item, relations::booker);
+    }
+
     @Override
     public BookingResponseDto getBooking(Long userId, Long bookingId) {
         log.info("Получение бронирования ID={} пользователем ID={}", bookingId, userId);
 
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException(
-                        String.format("Бронирование с ID=%d не найдено", bookingId)));
-
+        Booking booking = getBookingModelById(bookingId);
         Item item = getItemModelById(booking.getItemId());
 
         if (!booking.getBookerId().equals(userId) && !item.getUserId().equals(userId)) {
@@ -115,93 +212,206 @@ public class BookingServiceImpl implements BookingService {
                     String.format("Пользователь с ID=%d не имеет доступа к бронированию", userId));
         }
 
-        User booker = userService.getUserModelById(booking.getBookerId());
+        UserSnapshot booker = userService.getUserSnapshotById(booking.getBookerId());
         ItemDto itemDto = itemMapper.mapToDto(item);
         UserDto userDto = userMapper.mapToDto(booker);
         return bookingMapper.mapToResponseDto(booking, itemDto, userDto);
     }
 
     @Override
-    public List<BookingResponseDto> getUserBookings(Long userId, String state, Integer from, Integer size) {
-        log.info("Получение бронирований пользователя ID={} с состоянием {}", userId, state);
+    public String getBookingETag(Long userId, Long bookingId) {
+        // В ответ входят бронирование, вещь и арендатор; чужим ETag не выдается, их запрос пойдет полным путем
+        return bookingRepository.findVersionById(bookingId)
+                .filter(version -> version.bookerId().equals(userId) || version.ownerId().equals(userId))
+                .map(version -> String.format("b%d-%d-%d-%d", bookingId, version.bookingVersion(),
+                        version.itemVersion(), version.bookerVersion()))
+                .orElse(null);
+    }
 
-        userService.getUserModelById(userId);
+    @Override
+    public List<BookingResponseDto> getUserBookings(Long userId, String state, Integer from, Integer size,
+                                                    String cursor) {
+        log.info("Получение бронирований пользователя ID={} с состоянием {}", userId, state);
 
-        validatePaginationParams(from, size);
+        userService.getUserSnapshotById(userId);
 
-        Pageable pageable = createPageable(from, size);
+        KeysetPageRequest page = KeysetPageRequest.of(PageList.USER_BOOKINGS, from, size, cursor);
         BookingFilterState bookingState = BookingFilterState.fromString(state);
 
-        List<Booking> bookings = bookingRepository.findAllByBookerIdOrderByStartDesc(userId, pageable);
-        List<Booking> filteredBookings = filterBookingsByState(bookings, bookingState);
-
-        return bookingMapper.mapToResponseDtoList(
-                filteredBookings,
-                this::getItemDtoById,
-                this::getUserDtoById
-        );
+        // Бронирования вместе с вещью и арендатором одним запросом, сразу в DTO
+        return bookingMapper.mapRowsToResponseDtoList(bookingRepository.findByBookerIdAndState(
+                userId, bookingState, LocalDateTime.now(), page.beforeTimestamp(), page.beforeId(),
+                page.pageable()));
     }
 
     @Override
-    public List<BookingResponseDto> getOwnerBookings(Long userId, String state, Integer from, Integer size) {
+    public List<BookingResponseDto> getOwnerBookings(Long userId, String state, Integer from, Integer size,
+                                                     String cursor) {
         log.info("Получение бронирований владельца ID={} с состоянием {}", userId, state);
 
-        userService.getUserModelById(userId);
-
-        validatePaginationParams(from, size);
+        userService.getUserSnapshotById(userId);
 
-        Pageable pageable = createPageable(from, size);
+        KeysetPageRequest page = KeysetPageRequest.of(PageList.OWNER_BOOKINGS, from, size, cursor);
         BookingFilterState bookingState = BookingFilterState.fromString(state);
 
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerId(userId, pageable);
-        List<Booking> filteredBookings = filterBookingsByState(bookings, bookingState);
-
-        return bookingMapper.mapToResponseDtoList(
-                filteredBookings,
-                this::getItemDtoById,
-                this::getUserDtoById
-        );
+        // Бронирования вместе с вещью и арендатором одним запросом, сразу в DTO
+        return bookingMapper.mapRowsToResponseDtoList(bookingRepository.findByItemOwnerIdAndState(
+                userId, bookingState, LocalDateTime.now(), page.beforeTimestamp(), page.beforeId(),
+                page.pageable()));
     }
 
     @Transactional
     public BookingResponseDto cancelBooking(Long userId, Long bookingId) {
         log.info("Отмена бронирования ID={} пользователем ID={}", bookingId, userId);
 
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BookingNotFoundException(
-                        String.format("Бронирование с ID=%d не найдено", bookingId)));
-
-        // Только автор бронирования может отменить
-        if (!booking.getBookerId().equals(userId)) {
-            throw new UnauthorizedAccessException(
-                    String.format("Пользователь с ID=%d не является автором бронирования", userId));
-        }
-
-        // Можно отменить только ожидающие бронирования
-        if (booking.getStatus() != BookingStatus.WAITING) {
-            throw new BookingValidationException("Можно отменить только бронирования в статусе WAITING");
+        // Отменить можно только свое ожидающее бронирование; проверка и запись - один UPDATE
+        if (bookingRepository.cancelWaiting(bookingId, userId) == 0) {
+            throw cancellationFailure(userId, bookingId);
         }
 
-        booking.setStatus(BookingStatus.CANCELED);
-        Booking updatedBooking = bookingRepository.save(booking);
+        Booking updatedBooking = getBookingModelById(bookingId);
+        itemAvailabilityIndex.remove(updatedBooking);
+        publishStatusChanged(bookingId, updatedBooking.getItemId(), updatedBooking.getStatus());
 
         Item item = getItemModelById(updatedBooking.getItemId());
-        User booker = userService.getUserModelById(updatedBooking.getBookerId());
+        UserSnapshot booker = userService.getUserSnapshotById(updatedBooking.getBookerId());
         ItemDto itemDto = itemMapper.mapToDto(item);
         UserDto userDto = userMapper.mapToDto(booker);
 
         return bookingMapper.mapToResponseDto(updatedBooking, itemDto, userDto);
     }
 
-    // Вспомогательные методы для получения DTO
-    private ItemDto getItemDtoById(Long itemId) {
-        Item item = getItemModelById(itemId);
-        return itemMapper.mapToDto(item);
+    @Override
+    @Transactional(readOnly = true, timeoutString = "${shareit.export.timeout-seconds}")
+    public long exportUserBookings(Long userId, BookingExportFormat format, Supplier<Writer> output) {
+        log.info("Выгрузка бронирований пользователя ID={} в формате {}", userId, format);
+
+        userService.getUserSnapshotById(userId);
+
+        // Поток читается внутри транзакции только для чтения, строки сразу уходят в ответ.
+        // Таймаут транзакции ограничивает запрос, а BookingExportWriter - всю выгрузку, чтобы медленный
+        // клиент не держал соединение и разрешение на доступ к БД
+        try (Stream<BookingExportRow> rows = bookingRepository.streamByBookerId(userId)) {
+            long count = bookingExportWriter.write(rows, format, output.get());
+            log.info("Выгружено {} бронирований пользователя ID={}", count, userId);
+            return count;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true, timeoutString = "${shareit.export.timeout-seconds}")
+    public long exportOwnerBookings(Long userId, BookingExportFormat format, Supplier<Writer> output) {
+        log.info("Выгрузка бронирований владельца ID={} в формате {}", userId, format);
+
+        userService.getUserSnapshotById(userId);
+
+        try (Stream<BookingExportRow> rows = bookingRepository.streamByItemOwnerId(userId)) {
+            long count = bookingExportWriter.write(rows, format, output.get());
+            log.info("Выгружено {} бронирований владельца ID={}", count, userId);
+            return count;
+        }
+    }
+
+    // Новые статусы в порядке запроса
+    private Map<Long, BookingStatus> toNewStatuses(List<BookingDecisionDto> decisions) {
+        if (decisions == null || decisions.isEmpty() || decisions.size() > MAX_BATCH_SIZE) {
+            throw new BookingValidationException(
+                    String.format("В пакете должно быть от 1 до %d решений", MAX_BATCH_SIZE));
+        }
+
+        Map<Long, BookingStatus> newStatuses = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            if (decision == null || decision.getBookingId() == null || decision.getApproved() == null) {
+                throw new BookingValidationException("Для каждого решения нужно указать bookingId и approved");
+            }
+            BookingStatus status = decision.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            if (newStatuses.put(decision.getBookingId(), status) != null) {
+                throw new BookingValidationException(
+                        String.format("Бронирование ID=%d указано в пакете несколько раз", decision.getBookingId()));
+            }
+        }
+        return newStatuses;
+    }
+
+    // Повторная проверка под блокировкой вещи: по базе, а не по индексу, чтобы учесть подтверждения
+    // с других узлов. Само бронирование уже подтверждено в этой транзакции и не учитывается
+    private void checkNoApprovedOverlap(Booking booking) {
+        boolean overlaps = bookingRepository.findOverlappingApprovedBookings(
+                        booking.getItemId(), booking.getStart(), booking.getEnd()).stream()
+                .anyMatch(approved -> !approved.getId().equals(booking.getId()));
+        if (overlaps) {
+            throw new BookingValidationException(String.format(
+                    "Бронирование ID=%d пересекается с уже подтвержденным", booking.getId()));
+        }
+    }
+
+    // Пакет проверяется одним запросом: подтвержденные ранее и подтверждаемые сейчас интервалы
+    // каждой вещи сортируются по началу и не должны пересекаться
+    private void checkNoApprovedOverlap(List<Booking> toApprove) {
+        if (toApprove.isEmpty()) {
+            return;
+        }
+        Map<Long, List<Booking>> byItem = toApprove.stream()
+                .collect(Collectors.groupingBy(Booking::getItemId, Collectors.toCollection(ArrayList::new)));
+        LocalDateTime earliestStart = toApprove.stream()
+                .map(Booking::getStart)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        // Бронирования пакета уже подтверждены в этой транзакции и приходят из запроса повторно
+        Set<Long> batchIds = toApprove.stream().map(Booking::getId).collect(Collectors.toSet());
+        for (Booking approved : bookingRepository.findApprovedByItemIdInAndEndAfter(byItem.keySet(), earliestStart)) {
+            if (!batchIds.contains(approved.getId())) {
+                byItem.get(approved.getItemId()).add(approved);
+            }
+        }
+
+        for (List<Booking> itemBookings : byItem.values()) {
+            itemBookings.sort(Comparator.comparing(Booking::getStart));
+            LocalDateTime maxEnd = null;
+            for (Booking booking : itemBookings) {
+                if (maxEnd != null && booking.getStart().isBefore(maxEnd)) {
+                    throw new BookingValidationException(String.format(
+                            "Бронирования вещи ID=%d в пакете пересекаются с подтвержденными", booking.getItemId()));
+                }
+                maxEnd = maxEnd == null || booking.getEnd().isAfter(maxEnd) ? booking.getEnd() : maxEnd;
+            }
+        }
+    }
+
+    private void publishStatusChanged(Long bookingId, Long itemId, BookingStatus status) {
+        domainEventPublisher.publish(DomainEventType.BOOKING_STATUS_CHANGED, bookingId,
+                Map.of("itemId", itemId, "status", status));
+    }
+
+    // Причина, по которой решение владельца не применилось, в порядке прежних проверок
+    private RuntimeException decisionFailure(Long userId, Long bookingId) {
+        Booking booking = getBookingModelById(bookingId);
+        if (!getItemModelById(booking.getItemId()).getUserId().equals(userId)) {
+            return new UnauthorizedAccessException(
+                    String.format("Пользователь с ID=%d не является владельцем вещи", userId));
+        }
+        if (booking.getStatus() != BookingStatus.WAITING) {
+            return new BookingValidationException("Статус бронирования уже изменен");
+        }
+        return new ConflictException("Статус бронирования изменился во время обработки");
     }
 
-    private UserDto getUserDtoById(Long userId) {
-        User user = userService.getUserModelById(userId);
-        return userMapper.mapToDto(user);
+    private RuntimeException cancellationFailure(Long userId, Long bookingId) {
+        Booking booking = getBookingModelById(bookingId);
+        if (!booking.getBookerId().equals(userId)) {
+            return new UnauthorizedAccessException(
+                    String.format("Пользователь с ID=%d не является автором бронирования", userId));
+        }
+        if (booking.getStatus() != BookingStatus.WAITING) {
+            return new BookingValidationException("Можно отменить только бронирования в статусе WAITING");
+        }
+        return new ConflictException("Статус бронирования изменился во время обработки");
+    }
+
+    private Booking getBookingModelById(Long bookingId) {
+        return bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException(
+                        String.format("Бронирование с ID=%d не найдено", bookingId)));
     }
 
     private Item getItemModelById(Long itemId) {
@@ -238,60 +448,17 @@ public class BookingServiceImpl implements BookingService {
             throw new BookingValidationException("Дата начала не может быть в прошлом");
         }
 
-        List<Booking> overlappingBookings = bookingRepository.findOverlappingApprovedBookings(
-                item.getId(), start, end);
-
-        if (!overlappingBookings.isEmpty()) {
+        if (hasApprovedOverlap(item.getId(), start, end)) {
             throw new BookingValidationException("Вещь уже забронирована на указанные даты");
         }
     }
 
-    private List<Booking> filterBookingsByState(List<Booking> bookings, BookingFilterState state) {
-        if (bookings == null || bookings.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        LocalDateTime now = LocalDateTime.now();
-
-        switch (state) {
-            case CURRENT:
-                return bookings.stream()
-                        .filter(b -> b.getStart().isBefore(now) && b.getEnd().isAfter(now))
-                        .collect(Collectors.toList());
-            case PAST:
-                return bookings.stream()
-                        .filter(b -> b.getEnd().isBefore(now))
-                        .collect(Collectors.toList());
-            case FUTURE:
-                return bookings.stream()
-                        .filter(b -> b.getStart().isAfter(now))
-                        .collect(Collectors.toList());
-            case WAITING:
-                return bookings.stream()
-                        .filter(b -> b.getStatus() == BookingStatus.WAITING)
-                        .collect(Collectors.toList());
-            case REJECTED:
-                return bookings.stream()
-                        .filter(b -> b.getStatus() == BookingStatus.REJECTED)
-                        .collect(Collectors.toList());
-            case CANCELED:
-                return bookings.stream()
-                        .filter(b -> b.getStatus() == BookingStatus.CANCELED)
-                        .collect(Collectors.toList());
-            case ALL:
-            default:
-                return bookings;
-        }
-    }
-
-    private void validatePaginationParams(Integer from, Integer size) {
-        if (from == null || size == null || from < 0 || size <= 0) {
-            throw new IllegalArgumentException("Некорректные параметры пагинации");
+    // Индекс в памяти не знает о подтверждениях на других узлах: при общей для узлов
+    // блокировке проверка идет по БД, пока блокировка вещи удерживается
+    private boolean hasApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (itemLockManager.isClusterWide()) {
+            return !bookingRepository.findOverlappingApprovedBookings(itemId, start, end).isEmpty();
         }
-    }
-
-    private Pageable createPageable(Integer from, Integer size) {
-        int page = from / size;
-        return PageRequest.of(page, size);
+        return itemAvailabilityIndex.hasOverlap(itemId, start, end);
     }
 }
\ No newline at end of file
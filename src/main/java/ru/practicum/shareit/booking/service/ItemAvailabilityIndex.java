@@ -0,0 +1,228 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.UnaryOperator;
+
+/**
+ * Индекс подтвержденных интервалов бронирования по вещам для проверки пересечений.
+ * Интервалы хранятся в отсортированных по началу массивах long (микросекунды эпохи)
+ * с префиксным максимумом окончаний, поэтому проверка выполняется бинарным поиском.
+ * При промахе интервалы вещи загружаются из БД, которая остается источником истины.
+ * Число вещей ограничено maxItems, вещь без проверок дольше idleTimeout вытесняется.
+ */
+@Component
+public class ItemAvailabilityIndex {
+    private static final int STAMP_STRIPES = 1024;
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, Intervals> intervalsByItem;
+    // Счетчики изменений по полосам id вещи: по ним загрузка узнает об изменении, закоммиченном
+    // во время чтения из БД
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+
+    public ItemAvailabilityIndex(BookingRepository bookingRepository,
+                                 @Value("${shareit.availability.max-items:100000}") long maxItems,
+                                 @Value("${shareit.availability.idle-timeout-ms:600000}") long idleTimeoutMillis) {
+        this.bookingRepository = bookingRepository;
+        this.intervalsByItem = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfterAccess(Duration.ofMillis(idleTimeoutMillis))
+                .build();
+    }
+
+    public boolean hasOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Intervals intervals = intervalsByItem.getIfPresent(itemId);
+        if (intervals == null) {
+            intervals = loadAndCache(itemId);
+        }
+        return intervals.overlaps(toMicros(start), toMicros(end));
+    }
+
+    public void addApproved(Booking booking) {
+        Long itemId = booking.getItemId();
+        long bookingId = booking.getId();
+        long start = toMicros(booking.getStart());
+        long end = toMicros(booking.getEnd());
+        afterCommit(() -> change(itemId, intervals -> intervals.with(bookingId, start, end,
+                toMicros(LocalDateTime.now()))));
+    }
+
+    public void remove(Booking booking) {
+        Long itemId = booking.getItemId();
+        long bookingId = booking.getId();
+        afterCommit(() -> change(itemId, intervals -> intervals.without(bookingId)));
+    }
+
+    public void evict(Long itemId) {
+        afterCommit(() -> {
+            stamps.incrementAndGet(stripe(itemId));
+            intervalsByItem.invalidate(itemId);
+        });
+    }
+
+    // Загрузка вне блокировок кеша: запрос к БД не держит корзину карты и не блокирует
+    // других читателей. Если за время загрузки вещь изменилась, загруженные интервалы
+    // используются только для этой проверки и в кеше не остаются
+    private Intervals loadAndCache(Long itemId) {
+        int stripe = stripe(itemId);
+        long stamp = stamps.get(stripe);
+        Intervals loaded = load(itemId);
+        Intervals cached = intervalsByItem.asMap().putIfAbsent(itemId, loaded);
+        if (cached != null) {
+            return cached;
+        }
+        // Изменение, начатое после этой проверки, применится к положенным интервалам
+        if (stamps.get(stripe) != stamp) {
+            intervalsByItem.invalidate(itemId);
+        }
+        return loaded;
+    }
+
+    // Счетчик увеличивается до изменения: загрузка, положившая интервалы раньше, увидит его и сбросит их
+    private void change(Long itemId, UnaryOperator<Intervals> update) {
+        stamps.incrementAndGet(stripe(itemId));
+        intervalsByItem.asMap().computeIfPresent(itemId, (id, intervals) -> update.apply(intervals));
+    }
+
+    private static int stripe(Long itemId) {
+        return Long.hashCode(itemId) & (STAMP_STRIPES - 1);
+    }
+
+    private Intervals load(Long itemId) {
+        // Завершившиеся бронирования не влияют на новые, начало которых не в прошлом
+        List<Booking> approved = bookingRepository.findByItemIdAndStatusAndEndAfter(
+                itemId, BookingStatus.APPROVED, LocalDateTime.now());
+
+        Intervals intervals = Intervals.EMPTY;
+        for (Booking booking : approved) {
+            intervals = intervals.with(booking.getId(), toMicros(booking.getStart()),
+                    toMicros(booking.getEnd()), Long.MIN_VALUE);
+        }
+        return intervals;
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000L;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Неизменяемый набор интервалов, отсортированный по началу.
+     * maxEnds[i] - максимальное окончание среди интервалов 0..i.
+     */
+    private static final class Intervals {
+        static final Intervals EMPTY = new Intervals(new long[0], new long[0], new long[0], new long[0]);
+
+        final long[] ids;
+        final long[] starts;
+        final long[] ends;
+        final long[] maxEnds;
+
+        Intervals(long[] ids, long[] starts, long[] ends, long[] maxEnds) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = maxEnds;
+        }
+
+        // Пересечение с [start, end): есть интервал с началом до end и окончанием после start
+        boolean overlaps(long start, long end) {
+            int last = lastStartingBefore(end);
+            return last >= 0 && maxEnds[last] > start;
+        }
+
+        Intervals with(long id, long start, long end, long dropEndedBefore) {
+            Intervals base = without(id);
+            int size = 0;
+            long[] newIds = new long[base.ids.length + 1];
+            long[] newStarts = new long[newIds.length];
+            long[] newEnds = new long[newIds.length];
+            boolean inserted = false;
+            for (int i = 0; i <= base.ids.length; i++) {
+                if (!inserted && (i == base.ids.length || base.starts[i] > start)) {
+                    newIds[size] = id;
+                    newStarts[size] = start;
+                    newEnds[size] = end;
+                    size++;
+                    inserted = true;
+                }
+                if (i < base.ids.length && base.ends[i] > dropEndedBefore) {
+                    newIds[size] = base.ids[i];
+                    newStarts[size] = base.starts[i];
+                    newEnds[size] = base.ends[i];
+                    size++;
+                }
+            }
+            return of(Arrays.copyOf(newIds, size), Arrays.copyOf(newStarts, size), Arrays.copyOf(newEnds, size));
+        }
+
+        Intervals without(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    return of(removeAt(ids, i), removeAt(starts, i), removeAt(ends, i));
+                }
+            }
+            return this;
+        }
+
+        private int lastStartingBefore(long value) {
+            int low = 0;
+            int high = starts.length - 1;
+            int result = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < value) {
+                    result = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return result;
+        }
+
+        private static Intervals of(long[] ids, long[] starts, long[] ends) {
+            long[] maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+            return new Intervals(ids, starts, ends, maxEnds);
+        }
+
+        private static long[] removeAt(long[] values, int index) {
+            long[] result = new long[values.length - 1];
+            System.arraycopy(values, 0, result, 0, index);
+            System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+            return result;
+        }
+    }
+}
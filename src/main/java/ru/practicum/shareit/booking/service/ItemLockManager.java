@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.service;
+
+import java.util.Collection;
+
+/**
+ * Блокировки вещей на время текущей транзакции: проверка пересечений и запись бронирования
+ * для одной вещи выполняются последовательно, для разных вещей - параллельно.
+ * Блокировка снимается после завершения транзакции, когда изменения уже видны другим.
+ * Индекс ItemAvailabilityIndex видит только подтверждения своего узла, поэтому при блокировке
+ * на все узлы пересечения проверяются по БД под этой блокировкой.
+ */
+public interface ItemLockManager {
+
+    void lock(Long itemId);
+
+    // Несколько вещей блокируются в порядке возрастания id, чтобы не было взаимных блокировок
+    void lockAll(Collection<Long> itemIds);
+
+    // true - блокировка общая для всех узлов, работающих с базой
+    boolean isClusterWide();
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Блокировки в памяти узла: фиксированный набор ReentrantLock, вещь попадает в полосу по хешу id.
+ * Разные вещи изредка делят полосу, но число блокировок не растет с числом вещей.
+ * Подходит для одного экземпляра приложения; для нескольких узлов - AdvisoryItemLockManager.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.item-lock.backend", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class StripedItemLockManager implements ItemLockManager {
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+    private final Counter contended;
+    private final Timer waitTimer;
+
+    public StripedItemLockManager(@Value("${shareit.item-lock.stripes:1024}") int stripeCount,
+                                  @Value("${shareit.item-lock.timeout-ms:5000}") long timeoutMillis,
+                                  MeterRegistry meterRegistry) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.contended = meterRegistry.counter("shareit.item.lock.contended", "backend", "local");
+        this.waitTimer = meterRegistry.timer("shareit.item.lock.wait", "backend", "local");
+    }
+
+    @Override
+    public void lock(Long itemId) {
+        lockStripe(stripeOf(itemId), itemId);
+    }
+
+    @Override
+    public void lockAll(Collection<Long> itemIds) {
+        // Порядок по номеру полосы: две вещи в одной полосе блокируются один раз
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Long itemId : itemIds) {
+            indexes.add(stripeOf(itemId));
+        }
+        for (Integer index : indexes) {
+            lockStripe(index, null);
+        }
+    }
+
+    @Override
+    public boolean isClusterWide() {
+        return false;
+    }
+
+    private void lockStripe(int index, Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Блокировка вещи возможна только внутри транзакции");
+        }
+        ReentrantLock lock = stripes[index];
+        if (!lock.tryLock()) {
+            contended.increment();
+            long started = System.nanoTime();
+            try {
+                if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new ConflictException("Вещь занята параллельной операцией, повторите запрос");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConflictException("Ожидание блокировки вещи прервано");
+            } finally {
+                waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+            log.debug("Блокировка вещи ID={} получена после ожидания", itemId);
+        }
+        // afterCompletion выполняется после afterCommit, когда индекс пересечений уже обновлен
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private int stripeOf(Long itemId) {
+        int hash = Long.hashCode(itemId);
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % stripes.length;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+    // Таймер на все публичные методы сервисов: теги class и method, гистограмма для перцентилей
+    public static final String SERVICE_TIMER = "shareit.service";
+
+    // Без аспекта аннотация @Timed на сервисах не учитывается
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
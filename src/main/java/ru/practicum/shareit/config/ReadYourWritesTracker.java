@@ -0,0 +1,47 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Пользователи, недавно записавшие в основную базу. Пока запись не старше окна,
+ * их читающие транзакции идут на основную базу, а не на отстающую реплику.
+ * Текущий пользователь запроса хранится в потоке (задается фильтром по X-Sharer-User-Id).
+ */
+public class ReadYourWritesTracker {
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window, long maxUsers) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxUsers)
+                .build();
+    }
+
+    public static void setCurrentUser(Long userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    public static Long currentUser() {
+        return CURRENT_USER.get();
+    }
+
+    public static void clearCurrentUser() {
+        CURRENT_USER.remove();
+    }
+
+    // Окно отсчитывается от коммита, а не от начала транзакции
+    public void markWrite(Long userId) {
+        if (userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public boolean requiresPrimary(Long userId) {
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.config;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реплики для чтения (shareit.replica.*). Пулы реплик получают те же настройки
+ * spring.datasource.hikari.*, что и основной пул; адрес и учетные данные - свои.
+ */
+@ConfigurationProperties("shareit.replica")
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ReplicaProperties {
+    List<Endpoint> endpoints = new ArrayList<>();
+    // Сколько после собственной записи пользователь читает с основной базы
+    long readYourWritesMs = 5000;
+    // Сколько пользователей с недавней записью запоминается
+    long readYourWritesMaxUsers = 100_000;
+
+    @Data
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Endpoint {
+        String url;
+        String username;
+        String password;
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение с реплик: транзакции readOnly = true уходят на пулы shareit.replica.endpoints,
+ * остальные - на основную базу spring.datasource.*. Каждый пул публикует метрики
+ * hikaricp.* со своим тегом pool (primary, replica-1, ...), решения маршрутизации -
+ * счетчик shareit.db.route.
+ */
+@Configuration
+@Profile("replica")
+@EnableConfigurationProperties(ReplicaProperties.class)
+@Slf4j
+public class ReplicaRoutingConfig {
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaProperties properties) {
+        return new ReadYourWritesTracker(Duration.ofMillis(properties.getReadYourWritesMs()),
+                properties.getReadYourWritesMaxUsers());
+    }
+
+    // Не кандидат на внедрение: наружу источник выдается только через ленивый прокси
+    @Bean(autowireCandidate = false)
+    public ReadWriteRoutingDataSource routingDataSource(DataSourceProperties dataSourceProperties,
+                                                       ReplicaProperties replicaProperties,
+                                                       ReadYourWritesTracker tracker,
+                                                       MeterRegistry meterRegistry,
+                                                       Environment environment) {
+        HikariDataSource primary = pool(environment, meterRegistry, ReadWriteRoutingDataSource.PRIMARY,
+                dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword(), false);
+        primary.setDriverClassName(dataSourceProperties.determineDriverClassName());
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReplicaProperties.Endpoint endpoint : replicaProperties.getEndpoints()) {
+            replicas.add(pool(environment, meterRegistry, "replica-" + (replicas.size() + 1),
+                    endpoint.getUrl(), endpoint.getUsername(), endpoint.getPassword(), true));
+        }
+        if (replicas.isEmpty()) {
+            log.warn("Профиль replica включен, но shareit.replica.endpoints пуст: все чтения идут на основную базу");
+        } else {
+            log.info("Чтение с реплик: {}", replicas.stream().map(HikariDataSource::getPoolName).toList());
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, tracker, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties,
+                                 ReplicaProperties replicaProperties,
+                                 ReadYourWritesTracker tracker,
+                                 MeterRegistry meterRegistry,
+                                 Environment environment) {
+        return new LazyConnectionDataSourceProxy(routingDataSource(dataSourceProperties, replicaProperties,
+                tracker, meterRegistry, environment));
+    }
+
+    // Пользователь запроса нужен маршрутизатору для окна read-your-writes
+    @Bean
+    public OncePerRequestFilter readYourWritesFilter() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                ReadYourWritesTracker.setCurrentUser(parseUserId(request.getHeader(USER_HEADER)));
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    ReadYourWritesTracker.clearCurrentUser();
+                }
+            }
+        };
+    }
+
+    private static Long parseUserId(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Общие настройки spring.datasource.hikari.* для всех пулов, адрес и имя - свои
+    private static HikariDataSource pool(Environment environment, MeterRegistry meterRegistry, String name,
+                                         String url, String username, String password, boolean readOnly) {
+        HikariDataSource pool = new HikariDataSource();
+        Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setReadOnly(readOnly);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
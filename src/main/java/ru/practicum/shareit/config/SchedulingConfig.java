@@ -0,0 +1,13 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Фоновые задачи (@Scheduled): пересчет устаревших сводок бронирований вещей
+ * и доставка событий outbox проекциям.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
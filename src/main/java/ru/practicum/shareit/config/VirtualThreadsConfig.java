@@ -0,0 +1,45 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+
+@Configuration
+@Profile("virtual")
+public class VirtualThreadsConfig {
+
+    // Оборачивает DataSource семафором размером с пул соединений;
+    // маршрутизатор реплик не оборачивается - ограничение ставится на внешний прокси
+    @Bean
+    public static BeanPostProcessor dbConcurrencyLimiter(@Value("${shareit.db.max-concurrency}") int maxConcurrency,
+                                                         @Value("${shareit.db.acquire-timeout-ms}") long timeoutMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitingDataSource)
+                        && !(bean instanceof ReadWriteRoutingDataSource)) {
+                    return new ConcurrencyLimitingDataSource(dataSource, maxConcurrency, timeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder dbConcurrencyMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConcurrencyLimitingDataSource limited) {
+                Gauge.builder("shareit.db.concurrency.available", limited,
+                        ConcurrencyLimitingDataSource::availablePermits).register(registry);
+                Gauge.builder("shareit.db.concurrency.waiting", limited,
+                        ConcurrencyLimitingDataSource::waitingThreads).register(registry);
+            }
+        };
+    }
+}
@@ -1,11 +1,16 @@
 package ru.practicum.shareit.exception;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.context.MessageSourceResolvable;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestControllerAdvice
 public class ErrorHandler {
@@ -27,6 +32,29 @@ public class ErrorHandler {
         return Map.of("error", "Ошибка валидации: " + e.getMessage());
     }
 
+    // Ограничения на параметрах запроса (@Min у from/size и т.п.)
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleHandlerMethodValidationException(final HandlerMethodValidationException e) {
+        return Map.of("error", "Ошибка валидации: " + e.getAllValidationResults().stream()
+                .flatMap(result -> result.getResolvableErrors().stream())
+                .map(MessageSourceResolvable::getDefaultMessage)
+                .collect(Collectors.joining("; ")));
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleConstraintViolationException(final ConstraintViolationException e) {
+        return Map.of("error", "Ошибка валидации: " + e.getConstraintViolations().stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining("; ")));
+    }
+
+    // Статус 200 и начало выгрузки уже отправлены, обрыв отмечен строкой ошибки в самой выгрузке
+    @ExceptionHandler
+    public void handleExportAbortedException(final ExportAbortedException e) {
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public Map<String, String> handleOtherExceptions(final Throwable e) {
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.exception;
+
+// Выгрузка прервана после отправки начала ответа: тело ошибки уже не пишется
+public class ExportAbortedException extends RuntimeException {
+    public ExportAbortedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,13 +1,19 @@
 package ru.practicum.shareit.item.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.mapper.ItemMapper;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.pagination.PageList;
 
 import java.util.List;
 
@@ -22,13 +28,26 @@ public class ItemController {
     @GetMapping
     public List<ItemDto> getItems(@RequestHeader(USER_ID_HEADER) Long userId,
                                   @RequestParam(defaultValue = "0") Integer from,
-                                  @RequestParam(defaultValue = "10") Integer size) {
-        return itemService.getUserItems(userId, from, size);
+                                  @RequestParam(defaultValue = "10") Integer size,
+                                  @RequestParam(required = false) String cursor,
+                                  HttpServletResponse response) {
+        List<ItemDto> items = itemService.getUserItems(userId, from, size, cursor);
+        setNextCursor(response, PageList.OWNER_ITEMS, items, size);
+        return items;
     }
 
+    // Условный GET: If-None-Match сверяется с ETag до сборки ответа, при совпадении - 304 без тела.
+    // Представление зависит от пользователя (даты бронирований видит только владелец)
     @GetMapping("/{itemId}")
     public ItemDto getItemById(@RequestHeader(USER_ID_HEADER) Long userId,
-                               @PathVariable Long itemId) {
+                               @PathVariable Long itemId,
+                               WebRequest webRequest,
+                               HttpServletResponse response) {
+        response.setHeader(HttpHeaders.VARY, USER_ID_HEADER);
+        String etag = itemService.getItemETag(userId, itemId);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
         return itemService.getItemById(userId, itemId);
     }
 
@@ -39,6 +58,13 @@ public class ItemController {
         return itemService.createItem(userId, itemDto);
     }
 
+    // Ответ 200 со статусом по каждому элементу: ошибка одной вещи не отменяет создание остальных
+    @PostMapping("/batch")
+    public List<ItemBatchResultDto> createItems(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                @RequestBody List<ItemDto> itemDtos) {
+        return itemService.createItems(userId, itemDtos);
+    }
+
     @DeleteMapping("/{itemId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteItem(@RequestHeader(USER_ID_HEADER) Long userId,
@@ -56,8 +82,12 @@ public class ItemController {
     @GetMapping("/search")
     public List<ItemDto> searchItems(@RequestParam String text,
                                      @RequestParam(defaultValue = "0") Integer from,
-                                     @RequestParam(defaultValue = "10") Integer size) {
-        return itemService.searchItems(text, from, size);
+                                     @RequestParam(defaultValue = "10") Integer size,
+                                     @RequestParam(required = false) String cursor,
+                                     HttpServletResponse response) {
+        List<ItemDto> items = itemService.searchItems(text, from, size, cursor);
+        setNextCursor(response, PageList.ITEM_SEARCH, items, size);
+        return items;
     }
 
     @PostMapping("/{itemId}/comment")
@@ -67,4 +97,28 @@ public class ItemController {
                                  @Valid @RequestBody CommentDto commentDto) {
         return itemService.addComment(userId, itemId, commentDto);
     }
+
+    // Новые комментарии первыми; курсор следующей страницы - (created, id) последнего комментария
+    @GetMapping("/{itemId}/comments")
+    public List<CommentDto> getItemComments(@PathVariable Long itemId,
+                                            @RequestParam(defaultValue = "0") Integer from,
+                                            @RequestParam(defaultValue = "10") Integer size,
+                                            @RequestParam(required = false) String cursor,
+                                            HttpServletResponse response) {
+        List<CommentDto> comments = itemService.getItemComments(itemId, from, size, cursor);
+        if (!comments.isEmpty() && comments.size() == size) {
+            CommentDto last = comments.get(comments.size() - 1);
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER,
+                    PageCursor.of(PageList.ITEM_COMMENTS, last.getCreated(), last.getId()).encode());
+        }
+        return comments;
+    }
+
+    // Курсор следующей страницы отдается, только если текущая страница заполнена
+    private void setNextCursor(HttpServletResponse response, PageList list, List<ItemDto> items, Integer size) {
+        if (!items.isEmpty() && items.size() == size) {
+            ItemDto last = items.get(items.size() - 1);
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(list, last.getId()).encode());
+        }
+    }
 }
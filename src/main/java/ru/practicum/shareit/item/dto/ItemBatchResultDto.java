@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+// Результат для одного элемента пакета: созданная вещь или ошибка с HTTP-статусом
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@Builder
+public class ItemBatchResultDto {
+    Integer index;
+    Integer status;
+    ItemDto item;
+    String error;
+}
@@ -26,5 +26,8 @@ public class ItemDto {
 
     BookingShortDto lastBooking;
     BookingShortDto nextBooking;
+    // Последние комментарии, не больше shareit.item.comments-preview-size; все - через GET /items/{id}/comments
     List<CommentDto> comments;
+    // Общее число комментариев вещи, а не размер списка comments
+    Long commentsCount;
 }
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.dto.mapper;
 
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentRow;
 
 public class CommentMapper {
 
@@ -13,4 +14,13 @@ public class CommentMapper {
         dto.setCreated(comment.getCreated());
         return dto;
     }
+
+    public static CommentDto toCommentDto(CommentRow row) {
+        CommentDto dto = new CommentDto();
+        dto.setId(row.id());
+        dto.setText(row.text());
+        dto.setAuthorName(row.authorName());
+        dto.setCreated(row.created());
+        return dto;
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.dto.mapper;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemRow;
 
 @Component
 public class ItemMapper {
@@ -27,4 +28,15 @@ public class ItemMapper {
                 .requestId(item.getRequestId())
                 .build();
     }
+
+    public ItemDto mapToDto(ItemRow row) {
+        return ItemDto.builder()
+                .id(row.id())
+                .owner(row.ownerId())
+                .name(row.name())
+                .description(row.description())
+                .available(row.available())
+                .requestId(row.requestId())
+                .build();
+    }
 }
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDateTime;
+
+// Один из последних комментариев вещи и общее число ее комментариев
+public record CommentPreviewRow(Long id,
+                                Long itemId,
+                                String text,
+                                String authorName,
+                                LocalDateTime created,
+                                long itemCommentsCount) {
+
+    public CommentRow comment() {
+        return new CommentRow(id, itemId, text, authorName, created);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDateTime;
+
+// Комментарий с именем автора; вещь и автор как сущности не загружаются
+public record CommentRow(Long id,
+                         Long itemId,
+                         String text,
+                         String authorName,
+                         LocalDateTime created) {
+}
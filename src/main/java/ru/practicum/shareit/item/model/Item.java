@@ -10,10 +10,14 @@ import lombok.experimental.FieldDefaults;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "items")
+@Table(name = "items", indexes = {
+        @Index(name = "idx_items_user_id", columnList = "user_id, id"),
+        @Index(name = "idx_items_request_id", columnList = "request_id")
+})
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -30,4 +34,9 @@ public class Item {
 
     @Column(name = "request_id")
     Long requestId;
+
+    // Версия для ETag; массовые UPDATE увеличивают ее явно
+    @Version
+    @Column(name = "version", nullable = false)
+    long version;
 }
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.item.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Поддерживаемая на запись сводка по вещи: последнее завершившееся и следующее бронирование
+ * (по тем же правилам, что BookingRepository.findLastAndNextBookings).
+ * Сводка верна до refreshAt: в этот момент начинается следующее или заканчивается одно из
+ * текущих бронирований, и строку пересчитывает ItemBookingSummaryService.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "item_booking_summary", indexes = {
+        @Index(name = "idx_item_booking_summary_refresh", columnList = "refresh_at")
+})
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    Long itemId;
+
+    @Column(name = "last_booking_id")
+    Long lastBookingId;
+
+    @Column(name = "last_booker_id")
+    Long lastBookerId;
+
+    @Column(name = "next_booking_id")
+    Long nextBookingId;
+
+    @Column(name = "next_booker_id")
+    Long nextBookerId;
+
+    @Column(name = "next_start")
+    LocalDateTime nextStart;
+
+    @Column(name = "refresh_at")
+    LocalDateTime refreshAt;
+
+    // null у новой строки: Spring Data по нему отличает вставку от обновления без лишнего SELECT
+    @Version
+    @Column(name = "version", nullable = false)
+    Long version;
+
+    public boolean isFreshAt(LocalDateTime now) {
+        return refreshAt == null || refreshAt.isAfter(now);
+    }
+}
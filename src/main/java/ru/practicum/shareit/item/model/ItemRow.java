@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.model;
+
+// Поля вещи для ответов только на чтение, без сущности в контексте персистентности
+public record ItemRow(Long id,
+                      Long ownerId,
+                      String name,
+                      String description,
+                      Boolean available,
+                      Long requestId) {
+}
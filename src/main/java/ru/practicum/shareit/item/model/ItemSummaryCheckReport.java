@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.model;
+
+import java.util.List;
+
+/**
+ * Результат сверки сводок с живыми таблицами: проверено вещей, без сводки,
+ * с устаревшей (ждет фонового пересчета) и с расхождением; id расхождений - первые из найденных.
+ */
+public record ItemSummaryCheckReport(long checked, long missing, long stale, long mismatched,
+                                     List<Long> mismatchedItemIds) {
+}
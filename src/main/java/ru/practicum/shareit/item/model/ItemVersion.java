@@ -0,0 +1,5 @@
+package ru.practicum.shareit.item.model;
+
+// Версия вещи и текущие последнее и следующее бронирования: из них собирается ETag GET /items/{id}
+public record ItemVersion(Long ownerId, long version, Long lastBookingId, Long nextBookingId) {
+}
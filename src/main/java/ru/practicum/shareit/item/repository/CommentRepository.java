@@ -3,9 +3,5 @@ package ru.practicum.shareit.item.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.item.model.Comment;
 
-import java.util.List;
-
-public interface CommentRepository extends JpaRepository<Comment, Long> {
-
-    List<Comment> findByItemIdOrderByCreatedDesc(Long itemId);
-}
\ No newline at end of file
+public interface CommentRepository extends JpaRepository<Comment, Long>, CommentRepositoryCustom {
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.CommentPreviewRow;
+import ru.practicum.shareit.item.model.CommentRow;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface CommentRepositoryCustom {
+
+    // Страница комментариев вещи по убыванию (created, id) строго после курсора
+    List<CommentRow> findRowsByItemIdBefore(Long itemId, LocalDateTime beforeCreated, Long beforeId,
+                                            Pageable pageable);
+
+    // Не больше limit последних комментариев каждой вещи и общее число ее комментариев - один запрос
+    List<CommentPreviewRow> findNewestRowsByItemIdIn(Collection<Long> itemIds, long limit);
+}
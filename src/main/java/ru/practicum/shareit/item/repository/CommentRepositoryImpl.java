@@ -0,0 +1,50 @@
+package ru.practicum.shareit.item.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.CommentPreviewRow;
+import ru.practicum.shareit.item.model.CommentRow;
+import ru.practicum.shareit.pagination.RowQueries;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class CommentRepositoryImpl implements CommentRepositoryCustom {
+    private static final String ROWS_BY_ITEM_BEFORE = "SELECT new ru.practicum.shareit.item.model.CommentRow(" +
+            "c.id, c.item.id, c.text, a.name, c.created) " +
+            "FROM Comment c JOIN c.author a " +
+            "WHERE c.item.id = :itemId " +
+            "AND (c.created < :beforeCreated OR (c.created = :beforeCreated AND c.id < :beforeId)) " +
+            "ORDER BY c.created DESC, c.id DESC";
+    private static final String NEWEST_ROWS_BY_ITEMS = "SELECT new ru.practicum.shareit.item.model.CommentPreviewRow(" +
+            "r.id, r.itemId, r.text, r.authorName, r.created, r.total) " +
+            "FROM (SELECT c.id AS id, c.item.id AS itemId, c.text AS text, a.name AS authorName, " +
+            "c.created AS created, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.item.id ORDER BY c.created DESC, c.id DESC) AS rowNumber, " +
+            "COUNT(*) OVER (PARTITION BY c.item.id) AS total " +
+            "FROM Comment c JOIN c.author a WHERE c.item.id IN :itemIds) r " +
+            "WHERE r.rowNumber <= :limit " +
+            "ORDER BY r.created DESC, r.id DESC";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<CommentRow> findRowsByItemIdBefore(Long itemId, LocalDateTime beforeCreated, Long beforeId,
+                                                   Pageable pageable) {
+        return RowQueries.page(RowQueries.query(entityManager, ROWS_BY_ITEM_BEFORE, CommentRow.class)
+                .setParameter("itemId", itemId)
+                .setParameter("beforeCreated", beforeCreated)
+                .setParameter("beforeId", beforeId), pageable);
+    }
+
+    @Override
+    public List<CommentPreviewRow> findNewestRowsByItemIdIn(Collection<Long> itemIds, long limit) {
+        return RowQueries.query(entityManager, NEWEST_ROWS_BY_ITEMS, CommentPreviewRow.class)
+                .setParameter("itemIds", itemIds)
+                .setParameter("limit", limit)
+                .getResultList();
+    }
+}
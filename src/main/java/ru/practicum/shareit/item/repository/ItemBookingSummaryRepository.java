@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    String OFFER_WINS = "(s.nextStart IS NULL OR s.nextStart > :start " +
+            "OR (s.nextStart = :start AND s.nextBookingId > :bookingId))";
+
+    // Новое бронирование становится следующим, если начинается раньше текущего следующего
+    // (при равном начале - по id, как в findLastAndNextBookings). Версия растет в любом случае:
+    // пересчет, прочитавший сводку до этой записи, получит конфликт и не потеряет бронирование
+    @Modifying
+    @Query("UPDATE ItemBookingSummary s SET " +
+            "s.nextBookingId = CASE WHEN " + OFFER_WINS + " THEN :bookingId ELSE s.nextBookingId END, " +
+            "s.nextBookerId = CASE WHEN " + OFFER_WINS + " THEN :bookerId ELSE s.nextBookerId END, " +
+            "s.nextStart = CASE WHEN " + OFFER_WINS + " THEN :start ELSE s.nextStart END, " +
+            "s.refreshAt = CASE WHEN s.refreshAt IS NULL OR s.refreshAt > :start THEN :start ELSE s.refreshAt END, " +
+            "s.version = s.version + 1 " +
+            "WHERE s.itemId = :itemId")
+    int offerNextBooking(@Param("itemId") Long itemId,
+                         @Param("bookingId") Long bookingId,
+                         @Param("bookerId") Long bookerId,
+                         @Param("start") LocalDateTime start);
+
+    // Сводки, где пользователь - автор последнего или следующего бронирования, сразу к пересчету.
+    // Индекса по арендаторам нет: удаление пользователя редкое, а поиск шел бы на каждую запись
+    @Modifying
+    @Query("UPDATE ItemBookingSummary s SET s.refreshAt = :refreshAt, s.version = s.version + 1 " +
+            "WHERE s.lastBookerId = :bookerId OR s.nextBookerId = :bookerId")
+    int markDueForBooker(@Param("bookerId") Long bookerId, @Param("refreshAt") LocalDateTime refreshAt);
+
+    @Modifying
+    @Query("DELETE FROM ItemBookingSummary s WHERE s.itemId = :itemId")
+    int deleteByItemId(@Param("itemId") Long itemId);
+
+    // Сводки, устаревшие к моменту now, начиная с самых старых (по индексу refresh_at)
+    @Query("SELECT s.itemId FROM ItemBookingSummary s WHERE s.refreshAt <= :now ORDER BY s.refreshAt")
+    List<Long> findDueItemIds(@Param("now") LocalDateTime now, Pageable pageable);
+}
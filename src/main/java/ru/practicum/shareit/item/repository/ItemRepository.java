@@ -3,21 +3,52 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemRow;
+import ru.practicum.shareit.item.model.ItemVersion;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
 
-    // Поиск вещей по владельцу с пагинацией
-    List<Item> findByUserIdOrderByIdAsc(Long userId, Pageable pageable);
+    // Чтение вещей строками ItemRow, без сущностей в контексте персистентности (списки - в ItemRepositoryImpl)
+    String ITEM_ROW_SELECT = "SELECT new ru.practicum.shareit.item.model.ItemRow(" +
+            "i.id, i.userId, i.name, i.description, i.available, i.requestId) FROM Item i ";
 
-    // Поиск вещей по владельцу без пагинации
-    List<Item> findByUserId(Long userId);
+    @Query(ITEM_ROW_SELECT + "WHERE i.id = :itemId")
+    Optional<ItemRow> findRowById(@Param("itemId") Long itemId);
+
+    // Для условного GET: версия вещи и id последнего и следующего бронирования (те же правила, что
+    // в findLastAndNextBookings) одним запросом по индексам (item_id, end_date) и (item_id, start_date, id)
+    @Query("SELECT new ru.practicum.shareit.item.model.ItemVersion(i.userId, i.version, " +
+            "(SELECT l.id FROM Booking l WHERE l.itemId = i.id AND l.end < :now " +
+            "ORDER BY l.end DESC, l.id DESC LIMIT 1), " +
+            "(SELECT n.id FROM Booking n WHERE n.itemId = i.id AND n.start > :now " +
+            "ORDER BY n.start ASC, n.id ASC LIMIT 1)) " +
+            "FROM Item i WHERE i.id = :itemId")
+    Optional<ItemVersion> findVersionById(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
+
+    // Все id вещей по возрастанию, порциями после курсора (пересчет и сверка сводок)
+    @Query("SELECT i.id FROM Item i WHERE i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Новый комментарий меняет представление вещи
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.version = i.version + 1 WHERE i.id = :itemId")
+    int incrementVersion(@Param("itemId") Long itemId);
+
+    // Имя автора показывается в комментариях, поэтому его изменение меняет все прокомментированные вещи
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.version = i.version + 1 " +
+            "WHERE i.id IN (SELECT c.item.id FROM Comment c WHERE c.author.id = :authorId)")
+    int incrementVersionsCommentedBy(@Param("authorId") Long authorId);
 
     // Поиск по тексту в названии и описании (только доступные вещи)
     @Query("SELECT i FROM Item i " +
@@ -27,17 +58,10 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "ORDER BY i.id ASC")
     List<Item> search(@Param("text") String text, Pageable pageable);
 
-    // Поиск по ID запроса (для вещей, созданных по запросу)
-    List<Item> findByRequestId(Long requestId);
-
     // Поиск всех вещей с непустым requestId
     @Query("SELECT i FROM Item i WHERE i.requestId IS NOT NULL")
     List<Item> findItemsWithRequests();
 
-    // Поиск по нескольким ID запросов
-    @Query("SELECT i FROM Item i WHERE i.requestId IN :requestIds")
-    List<Item> findByRequestIdIn(@Param("requestIds") List<Long> requestIds);
-
     // Проверка существования вещи у пользователя
     boolean existsByIdAndUserId(Long id, Long userId);
 
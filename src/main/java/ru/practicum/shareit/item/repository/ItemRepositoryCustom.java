@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.ItemRow;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+
+    // Поиск вещей по владельцу без пагинации
+    List<ItemRow> findRowsByUserId(Long userId);
+
+    // Поиск вещей по владельцу с пагинацией: по возрастанию id, начиная после курсора
+    List<ItemRow> findRowsByUserIdAfter(Long userId, Long afterId, Pageable pageable);
+
+    // Поиск по ID запроса (для вещей, созданных по запросу)
+    List<ItemRow> findRowsByRequestId(Long requestId);
+
+    // Поиск по нескольким ID запросов
+    List<ItemRow> findRowsByRequestIdIn(Collection<Long> requestIds);
+
+    // Обновление вещи владельцем одним UPDATE: в запрос попадают только переданные (не null) поля.
+    // Возвращает число измененных строк: 0 - вещи нет или владелец чужой
+    int updateFields(Long itemId, Long ownerId, String name, String description, Boolean available);
+}
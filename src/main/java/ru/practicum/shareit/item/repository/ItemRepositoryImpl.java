@@ -0,0 +1,80 @@
+package ru.practicum.shareit.item.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemRow;
+import ru.practicum.shareit.pagination.RowQueries;
+
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+    private static final String ROWS_BY_USER = ItemRepository.ITEM_ROW_SELECT +
+            "WHERE i.userId = :userId ORDER BY i.id ASC";
+    private static final String ROWS_BY_USER_AFTER = ItemRepository.ITEM_ROW_SELECT +
+            "WHERE i.userId = :userId AND i.id > :afterId ORDER BY i.id ASC";
+    private static final String ROWS_BY_REQUEST = ItemRepository.ITEM_ROW_SELECT +
+            "WHERE i.requestId = :requestId";
+    private static final String ROWS_BY_REQUESTS = ItemRepository.ITEM_ROW_SELECT +
+            "WHERE i.requestId IN :requestIds";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<ItemRow> findRowsByUserId(Long userId) {
+        return RowQueries.query(entityManager, ROWS_BY_USER, ItemRow.class)
+                .setParameter("userId", userId)
+                .getResultList();
+    }
+
+    @Override
+    public List<ItemRow> findRowsByUserIdAfter(Long userId, Long afterId, Pageable pageable) {
+        return RowQueries.page(RowQueries.query(entityManager, ROWS_BY_USER_AFTER, ItemRow.class)
+                .setParameter("userId", userId)
+                .setParameter("afterId", afterId), pageable);
+    }
+
+    @Override
+    public List<ItemRow> findRowsByRequestId(Long requestId) {
+        return RowQueries.query(entityManager, ROWS_BY_REQUEST, ItemRow.class)
+                .setParameter("requestId", requestId)
+                .getResultList();
+    }
+
+    @Override
+    public List<ItemRow> findRowsByRequestIdIn(Collection<Long> requestIds) {
+        return RowQueries.query(entityManager, ROWS_BY_REQUESTS, ItemRow.class)
+                .setParameter("requestIds", requestIds)
+                .getResultList();
+    }
+
+    @Override
+    public int updateFields(Long itemId, Long ownerId, String name, String description, Boolean available) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Item> update = cb.createCriteriaUpdate(Item.class);
+        Root<Item> item = update.from(Item.class);
+        if (name != null) {
+            update.set(item.<String>get("name"), name);
+        }
+        if (description != null) {
+            update.set(item.<String>get("description"), description);
+        }
+        if (available != null) {
+            update.set(item.<Boolean>get("available"), available);
+        }
+        // Массовый UPDATE не увеличивает @Version сам
+        update.set(item.<Long>get("version"), cb.sum(item.<Long>get("version"), 1L));
+        update.where(cb.equal(item.get("id"), itemId), cb.equal(item.get("userId"), ownerId));
+
+        int updated = entityManager.createQuery(update).executeUpdate();
+        // Как @Modifying(clearAutomatically = true): загруженные ранее сущности не должны скрывать изменения
+        entityManager.clear();
+        return updated;
+    }
+}
@@ -0,0 +1,271 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingEnd;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.config.MetricsConfig;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.model.ItemSummaryCheckReport;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Сводки ItemBookingSummary: поддерживаются на запись (новая вещь, новое бронирование,
+ * удаление вещи или арендатора), а смену последнего/следующего бронирования со временем
+ * догоняет фоновый пересчет строк с наступившим refreshAt. Статус бронирования на выбор
+ * последнего и следующего не влияет (как и в findLastAndNextBookings), поэтому подтверждение
+ * и отмена сводку не меняют.
+ */
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+@Slf4j
+@Transactional(readOnly = true)
+public class ItemBookingSummaryService {
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_CHUNKS_PER_RUN = 20;
+    private static final int MISMATCH_SAMPLE_SIZE = 20;
+    private static final LocalDateTime REFRESH_NOW = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter freshReads;
+    private final Counter fallbackReads;
+
+    public ItemBookingSummaryService(ItemBookingSummaryRepository summaryRepository,
+                                     ItemRepository itemRepository,
+                                     BookingRepository bookingRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     MeterRegistry meterRegistry) {
+        this.summaryRepository = summaryRepository;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.freshReads = meterRegistry.counter("shareit.item.summary.reads", "result", "fresh");
+        this.fallbackReads = meterRegistry.counter("shareit.item.summary.reads", "result", "fallback");
+    }
+
+    // Сводки, верные на момент now; вещей без сводки или с устаревшей сводкой в ответе нет
+    public Map<Long, ItemBookingSummary> findFresh(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> fresh = new HashMap<>();
+        for (ItemBookingSummary summary : summaryRepository.findAllById(itemIds)) {
+            if (summary.isFreshAt(now)) {
+                fresh.put(summary.getItemId(), summary);
+            }
+        }
+        freshReads.increment(fresh.size());
+        fallbackReads.increment(itemIds.size() - fresh.size());
+        return fresh;
+    }
+
+    @Transactional
+    public void itemsCreated(Collection<Item> items) {
+        summaryRepository.saveAll(items.stream()
+                .map(item -> ItemBookingSummary.builder().itemId(item.getId()).build())
+                .toList());
+    }
+
+    // Новое бронирование всегда в будущем, поэтому может стать только следующим
+    @Transactional
+    public void bookingCreated(Booking booking) {
+        summaryRepository.offerNextBooking(booking.getItemId(), booking.getId(), booking.getBookerId(),
+                booking.getStart());
+    }
+
+    // Бронирования пользователя удаляются каскадно вместе с ним: сводки, которые на них
+    // ссылаются, помечаются устаревшими и до фонового пересчета читаются по живым таблицам
+    @Transactional
+    public void bookerDeleted(Long bookerId) {
+        summaryRepository.markDueForBooker(bookerId, REFRESH_NOW);
+    }
+
+    @Transactional
+    public void itemDeleted(Long itemId) {
+        summaryRepository.deleteByItemId(itemId);
+    }
+
+    // Пересчет сводок, у которых наступил refreshAt; каждая порция - отдельная транзакция
+    @Scheduled(initialDelayString = "${shareit.item-summary.refresh-interval-ms}",
+            fixedDelayString = "${shareit.item-summary.refresh-interval-ms}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int refreshDue() {
+        LocalDateTime now = LocalDateTime.now();
+        int refreshed = 0;
+        for (int chunk = 0; chunk < MAX_CHUNKS_PER_RUN; chunk++) {
+            List<Long> due = summaryRepository.findDueItemIds(now, PageRequest.of(0, CHUNK_SIZE));
+            if (due.isEmpty()) {
+                break;
+            }
+            int saved = recompute(due, now);
+            refreshed += saved;
+            // Порция не сохранилась (конфликт с записью) - повтор в следующий запуск
+            if (saved == 0 || due.size() < CHUNK_SIZE) {
+                break;
+            }
+        }
+        if (refreshed > 0) {
+            log.debug("Пересчитано {} устаревших сводок бронирований", refreshed);
+        }
+        return refreshed;
+    }
+
+    // Полное построение сводок всех вещей по живым таблицам
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        long rebuilt = 0;
+        long afterId = 0;
+        List<Long> itemIds;
+        do {
+            itemIds = itemRepository.findIdsAfter(afterId, PageRequest.of(0, CHUNK_SIZE));
+            if (!itemIds.isEmpty()) {
+                rebuilt += recompute(itemIds, now);
+                afterId = itemIds.get(itemIds.size() - 1);
+            }
+        } while (itemIds.size() == CHUNK_SIZE);
+        log.info("Сводки бронирований построены заново для {} вещей", rebuilt);
+        return rebuilt;
+    }
+
+    // Сверка сводок с живыми таблицами; устаревшие сводки не сравниваются, а считаются отдельно
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ItemSummaryCheckReport check() {
+        LocalDateTime now = LocalDateTime.now();
+        long checked = 0;
+        long missing = 0;
+        long stale = 0;
+        long mismatched = 0;
+        List<Long> mismatchedItemIds = new ArrayList<>();
+        long afterId = 0;
+        List<Long> itemIds;
+        do {
+            itemIds = itemRepository.findIdsAfter(afterId, PageRequest.of(0, CHUNK_SIZE));
+            if (itemIds.isEmpty()) {
+                break;
+            }
+            Map<Long, ItemBookingSummary> stored = new HashMap<>();
+            summaryRepository.findAllById(itemIds).forEach(summary -> stored.put(summary.getItemId(), summary));
+            Map<Long, ItemBookingSummary> live = computeLive(itemIds, now);
+            for (Long itemId : itemIds) {
+                checked++;
+                ItemBookingSummary summary = stored.get(itemId);
+                if (summary == null) {
+                    missing++;
+                } else if (!summary.isFreshAt(now)) {
+                    stale++;
+                } else if (!sameContent(summary, live.get(itemId))) {
+                    mismatched++;
+                    if (mismatchedItemIds.size() < MISMATCH_SAMPLE_SIZE) {
+                        mismatchedItemIds.add(itemId);
+                    }
+                }
+            }
+            afterId = itemIds.get(itemIds.size() - 1);
+        } while (itemIds.size() == CHUNK_SIZE);
+
+        ItemSummaryCheckReport report = new ItemSummaryCheckReport(checked, missing, stale, mismatched,
+                mismatchedItemIds);
+        if (mismatched > 0 || missing > 0) {
+            log.warn("Сводки бронирований расходятся с таблицами: {}", report);
+        } else {
+            log.info("Сводки бронирований сверены: {}", report);
+        }
+        return report;
+    }
+
+    // Сводки читаются до живых таблиц: запись между чтениями увеличит версию, и сохранение порции
+    // завершится конфликтом вместо того, чтобы затереть более новое бронирование
+    private int recompute(List<Long> itemIds, LocalDateTime now) {
+        try {
+            Integer saved = transactionTemplate.execute(status -> {
+                Map<Long, ItemBookingSummary> stored = new HashMap<>();
+                summaryRepository.findAllById(itemIds).forEach(summary -> stored.put(summary.getItemId(), summary));
+                List<ItemBookingSummary> toSave = new ArrayList<>(itemIds.size());
+                computeLive(itemIds, now).forEach((itemId, live) -> {
+                    ItemBookingSummary summary = stored.get(itemId);
+                    if (summary == null) {
+                        toSave.add(live);
+                    } else {
+                        copyContent(live, summary);
+                        toSave.add(summary);
+                    }
+                });
+                summaryRepository.saveAll(toSave);
+                return toSave.size();
+            });
+            return saved == null ? 0 : saved;
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            log.warn("Порция из {} сводок не пересчитана, повтор позже: {}", itemIds.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    private Map<Long, ItemBookingSummary> computeLive(List<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> live = new LinkedHashMap<>();
+        itemIds.forEach(itemId -> live.put(itemId, ItemBookingSummary.builder().itemId(itemId).build()));
+
+        for (Booking booking : bookingRepository.findLastAndNextBookings(itemIds, now)) {
+            ItemBookingSummary summary = live.get(booking.getItemId());
+            // Одно бронирование не может одновременно закончиться и еще не начаться
+            if (booking.getEnd().isBefore(now)) {
+                summary.setLastBookingId(booking.getId());
+                summary.setLastBookerId(booking.getBookerId());
+            } else {
+                summary.setNextBookingId(booking.getId());
+                summary.setNextBookerId(booking.getBookerId());
+                summary.setNextStart(booking.getStart());
+            }
+        }
+
+        // Сводка устареет, когда закончится одно из текущих бронирований или начнется следующее
+        for (ItemBookingEnd end : bookingRepository.findEarliestEndsNotBefore(itemIds, now)) {
+            live.get(end.itemId()).setRefreshAt(end.end());
+        }
+        for (ItemBookingSummary summary : live.values()) {
+            LocalDateTime nextStart = summary.getNextStart();
+            if (nextStart != null && (summary.getRefreshAt() == null || nextStart.isBefore(summary.getRefreshAt()))) {
+                summary.setRefreshAt(nextStart);
+            }
+        }
+        return live;
+    }
+
+    private static void copyContent(ItemBookingSummary from, ItemBookingSummary to) {
+        to.setLastBookingId(from.getLastBookingId());
+        to.setLastBookerId(from.getLastBookerId());
+        to.setNextBookingId(from.getNextBookingId());
+        to.setNextBookerId(from.getNextBookerId());
+        to.setNextStart(from.getNextStart());
+        to.setRefreshAt(from.getRefreshAt());
+    }
+
+    private static boolean sameContent(ItemBookingSummary stored, ItemBookingSummary live) {
+        return Objects.equals(stored.getLastBookingId(), live.getLastBookingId())
+                && Objects.equals(stored.getLastBookerId(), live.getLastBookerId())
+                && Objects.equals(stored.getNextBookingId(), live.getNextBookingId())
+                && Objects.equals(stored.getNextBookerId(), live.getNextBookerId());
+    }
+}
@@ -0,0 +1,230 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Триграммный инвертированный индекс по названию и описанию доступных вещей.
+ * Повторяет семантику ItemRepository.search (подстрока без учета регистра,
+ * только available = true, сортировка по id), но отвечает без обращения к БД.
+ * Индекс свой у каждого узла: строится целиком при старте и обновляется по событиям
+ * outbox (ItemSearchProjection), которые диспетчер доставляет каждому узлу, после коммита
+ * транзакции диспетчера.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemSearchIndex {
+    private static final int GRAM_SIZE = 3;
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Long, IndexedItem> items = new TreeMap<>();
+    private final Map<String, NavigableSet<Long>> postings = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            postings.clear();
+            for (Item item : itemRepository.findAll()) {
+                add(copyOf(item));
+            }
+            log.info("Поисковый индекс вещей построен: {} доступных вещей, {} триграмм",
+                    items.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Item item) {
+        Item snapshot = copyOf(item);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                delete(snapshot.getId());
+                add(snapshot);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long itemId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                delete(itemId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void removeByOwner(Long ownerId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                items.values().stream()
+                        .filter(indexed -> indexed.item().getUserId().equals(ownerId))
+                        .map(indexed -> indexed.item().getId())
+                        .toList()
+                        .forEach(this::delete);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Вещи с id больше afterId по возрастанию id; offset отсчитывается от afterId
+    public List<Item> search(String text, long afterId, long offset, int limit) {
+        String query = text.toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            Iterable<Long> candidates = candidates(query, afterId);
+            if (candidates == null) {
+                return List.of();
+            }
+
+            List<Item> result = new ArrayList<>(limit);
+            long skipped = 0;
+            for (Long id : candidates) {
+                IndexedItem indexed = items.get(id);
+                if (!indexed.matches(query)) {
+                    continue;
+                }
+                if (skipped++ < offset) {
+                    continue;
+                }
+                result.add(copyOf(indexed.item()));
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Кандидаты в порядке возрастания id; null - совпадений точно нет
+    private Iterable<Long> candidates(String query, long afterId) {
+        if (query.length() < GRAM_SIZE) {
+            return items.navigableKeySet().tailSet(afterId, false);
+        }
+
+        List<NavigableSet<Long>> lists = new ArrayList<>();
+        for (String gram : gramsOf(query)) {
+            NavigableSet<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return null;
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        NavigableSet<Long> smallest = lists.get(0).tailSet(afterId, false);
+        List<NavigableSet<Long>> others = lists.subList(1, lists.size());
+        return () -> smallest.stream()
+                .filter(id -> others.stream().allMatch(ids -> ids.contains(id)))
+                .iterator();
+    }
+
+    private void add(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        IndexedItem indexed = new IndexedItem(item,
+                item.getName().toLowerCase(Locale.ROOT),
+                item.getDescription().toLowerCase(Locale.ROOT));
+        items.put(item.getId(), indexed);
+        for (String gram : indexed.grams()) {
+            postings.computeIfAbsent(gram, key -> new TreeSet<>()).add(item.getId());
+        }
+    }
+
+    private void delete(Long itemId) {
+        IndexedItem indexed = items.remove(itemId);
+        if (indexed == null) {
+            return;
+        }
+        for (String gram : indexed.grams()) {
+            NavigableSet<Long> ids = postings.get(gram);
+            ids.remove(itemId);
+            if (ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static Set<String> gramsOf(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static Item copyOf(Item item) {
+        return Item.builder()
+                .id(item.getId())
+                .userId(item.getUserId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .requestId(item.getRequestId())
+                .build();
+    }
+
+    // Изменения применяются только после успешного коммита транзакции
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record IndexedItem(Item item, String name, String description) {
+
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = gramsOf(name);
+            grams.addAll(gramsOf(description));
+            return grams;
+        }
+    }
+}
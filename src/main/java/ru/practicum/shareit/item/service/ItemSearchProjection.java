@@ -0,0 +1,74 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.model.DomainEventType;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.service.ProjectionHandler;
+
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поддерживает ItemSearchIndex по событиям outbox. Вещи пакета перечитываются из БД
+ * одним запросом: индекс получает их текущее состояние, поэтому повторная доставка
+ * и несколько событий одной вещи в пакете дают тот же результат.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemSearchProjection implements ProjectionHandler {
+    private static final Set<DomainEventType> EVENT_TYPES = EnumSet.of(DomainEventType.ITEM_CREATED,
+            DomainEventType.ITEM_UPDATED, DomainEventType.ITEM_DELETED, DomainEventType.USER_DELETED);
+
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+
+    @Override
+    public String name() {
+        return "item-search";
+    }
+
+    @Override
+    public Set<DomainEventType> eventTypes() {
+        return EVENT_TYPES;
+    }
+
+    @Override
+    public void rebuild() {
+        itemSearchIndex.rebuild();
+    }
+
+    @Override
+    public void handle(List<OutboxEvent> events) {
+        Set<Long> itemIds = new LinkedHashSet<>();
+        for (OutboxEvent event : events) {
+            if (event.getEventType() == DomainEventType.USER_DELETED) {
+                // Вещи пользователя уже удалены каскадно в БД
+                itemSearchIndex.removeByOwner(event.getAggregateId());
+            } else {
+                itemIds.add(event.getAggregateId());
+            }
+        }
+        if (itemIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Item> existing = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (Long itemId : itemIds) {
+            Item item = existing.get(itemId);
+            if (item == null) {
+                itemSearchIndex.remove(itemId);
+            } else {
+                itemSearchIndex.put(item);
+            }
+        }
+    }
+}
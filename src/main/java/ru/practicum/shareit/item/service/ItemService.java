@@ -2,8 +2,8 @@ package ru.practicum.shareit.item.service;
 
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.item.model.Item;
 
 import java.util.List;
 
@@ -12,19 +12,28 @@ public interface ItemService {
 
     ItemDto createItem(Long userId, ItemDto itemDto);
 
+    List<ItemBatchResultDto> createItems(Long userId, List<ItemDto> itemDtos);
+
     ItemDto getItemById(Long userId, Long itemId);
 
+    // ETag представления вещи для этого пользователя; null, если вещи нет
+    String getItemETag(Long userId, Long itemId);
+
     void deleteItem(Long userId, Long itemId);
 
     ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto);
 
-    List<ItemDto> searchItems(String text, Integer from, Integer size);
+    List<ItemDto> searchItems(String text, Integer from, Integer size, String cursor);
 
-    List<Item> getItemsByRequestId(Long requestId);
+    List<ItemDto> getItemsByRequestId(Long requestId);
 
-    List<ItemDto> getUserItems(Long userId, Integer from, Integer size);
+    List<ItemDto> getItemsByRequestIds(List<Long> requestIds);
+
+    List<ItemDto> getUserItems(Long userId, Integer from, Integer size, String cursor);
 
     CommentDto addComment(Long userId, Long itemId, CommentDto commentDto);
 
+    List<CommentDto> getItemComments(Long itemId, Integer from, Integer size, String cursor);
+
     List<ItemDto> getItemsByOwner(Long ownerId);
 }
@@ -1,25 +1,35 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.dto.mapper.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.config.MetricsConfig;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.UnauthorizedAccessException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.mapper.CommentMapper;
 import ru.practicum.shareit.item.dto.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemRow;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.model.DomainEventType;
+import ru.practicum.shareit.outbox.service.DomainEventPublisher;
+import ru.practicum.shareit.pagination.KeysetPageRequest;
+import ru.practicum.shareit.pagination.PageList;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -27,15 +37,22 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int BATCH_CHUNK_SIZE = 500;
+
     private final ItemRepository itemRepository;
     private final ItemMapper itemMapper;
     private final UserService userService;
@@ -43,7 +60,12 @@ public class ItemServiceImpl implements ItemService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
-    private final BookingMapper bookingMapper;
+    private final ItemViewLoader itemViewLoader;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final DomainEventPublisher domainEventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     @Transactional
@@ -66,46 +88,97 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item savedItem = itemRepository.save(item);
+        publishItemCreated(savedItem);
+        itemBookingSummaryService.itemsCreated(List.of(savedItem));
+        incrementRequestVersion(savedItem.getRequestId());
         log.info("Вещь создана с ID={}", savedItem.getId());
 
         return itemMapper.mapToDto(savedItem);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ItemBatchResultDto> createItems(Long userId, List<ItemDto> itemDtos) {
+        log.info("Пакетное создание {} вещей пользователем с ID={}", itemDtos.size(), userId);
+
+        if (itemDtos.isEmpty() || itemDtos.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException(String.format("В пакете должно быть от 1 до %d вещей", MAX_BATCH_SIZE));
+        }
+
+        // Владелец проверяется один раз на весь пакет
+        userService.getUserSnapshotById(userId);
+
+        Set<Long> requestIds = itemDtos.stream()
+                .filter(Objects::nonNull)
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingRequestIds = requestIds.isEmpty()
+                ? Set.of()
+                : itemRequestRepository.findExistingIds(requestIds);
+
+        ItemBatchResultDto[] results = new ItemBatchResultDto[itemDtos.size()];
+        List<PendingItem> pending = new ArrayList<>();
+        for (int index = 0; index < itemDtos.size(); index++) {
+            ItemDto itemDto = itemDtos.get(index);
+            if (itemDto == null) {
+                results[index] = failed(index, HttpStatus.BAD_REQUEST, "Данные вещи не могут быть пустыми");
+                continue;
+            }
+
+            Item item = itemMapper.mapToItem(itemDto);
+            item.setUserId(userId);
+            item.setId(null);
+            try {
+                validateItemFields(item);
+            } catch (IllegalArgumentException e) {
+                results[index] = failed(index, HttpStatus.BAD_REQUEST, e.getMessage());
+                continue;
+            }
+            if (item.getRequestId() != null && !existingRequestIds.contains(item.getRequestId())) {
+                results[index] = failed(index, HttpStatus.NOT_FOUND,
+                        String.format("Запрос с ID=%d не найден", item.getRequestId()));
+                continue;
+            }
+            pending.add(new PendingItem(index, item));
+        }
+
+        // Каждый фрагмент - отдельная транзакция; вставки уходят JDBC-пакетами по hibernate.jdbc.batch_size
+        for (int from = 0; from < pending.size(); from += BATCH_CHUNK_SIZE) {
+            saveChunk(pending.subList(from, Math.min(from + BATCH_CHUNK_SIZE, pending.size())), results);
+        }
+
+        long created = Arrays.stream(results)
+                .filter(result -> result.getItem() != null)
+                .count();
+        log.info("Пакетное создание вещей пользователем с ID={}: создано {} из {}", userId, created, results.length);
+
+        return Arrays.asList(results);
+    }
+
     @Override
     public ItemDto getItemById(Long userId, Long itemId) {
         log.info("Получение вещи с ID={} пользователем ID={}", itemId, userId);
 
-        Item item = itemRepository.findById(itemId)
+        ItemRow item = itemRepository.findRowById(itemId)
                 .orElseThrow(() -> new NotFoundException(
                         String.format("Вещь с ID=%d не найдена", itemId)));
 
-        ItemDto itemDto = itemMapper.mapToDto(item);
-
-        // Добавляем комментарии
-        List<Comment> comments = commentRepository.findByItemIdOrderByCreatedDesc(itemId);
-        List<CommentDto> commentDtos = comments.stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList());
-        itemDto.setComments(commentDtos);
-
-        // Если пользователь - владелец, добавляем даты бронирований
-        if (item.getUserId().equals(userId)) {
-            LocalDateTime now = LocalDateTime.now();
-
-            // Последнее бронирование (прошедшее)
-            Optional<Booking> lastBooking = bookingRepository
-                    .findFirstByItemIdAndEndBeforeOrderByEndDesc(item.getId(), now);
-            lastBooking.ifPresent(booking ->
-                    itemDto.setLastBooking(bookingMapper.mapToShortDto(booking)));
-
-            // Следующее бронирование (будущее)
-            Optional<Booking> nextBooking = bookingRepository
-                    .findFirstByItemIdAndStartAfterOrderByStartAsc(item.getId(), now);
-            nextBooking.ifPresent(booking ->
-                    itemDto.setNextBooking(bookingMapper.mapToShortDto(booking)));
-        }
+        // Даты бронирований видит только владелец
+        return itemViewLoader.load(item, item.ownerId().equals(userId));
+    }
 
-        return itemDto;
+    @Override
+    public String getItemETag(Long userId, Long itemId) {
+        // Владелец видит еще и последнее/следующее бронирование: они входят в ETag,
+        // поэтому смена бронирований со временем тоже меняет ETag
+        return itemRepository.findVersionById(itemId, LocalDateTime.now())
+                .map(version -> version.ownerId().equals(userId)
+                        ? String.format("i%d-%d-%s-%s", itemId, version.version(),
+                        Objects.toString(version.lastBookingId(), ""),
+                        Objects.toString(version.nextBookingId(), ""))
+                        : String.format("i%d-%d", itemId, version.version()))
+                .orElse(null);
     }
 
     @Override
@@ -113,7 +186,11 @@ public class ItemServiceImpl implements ItemService {
     public void deleteItem(Long userId, Long itemId) {
         userService.getUserById(userId);
         Item existingItem = getItemByIdAndCheckOwner(itemId, userId);
+        itemBookingSummaryService.itemDeleted(itemId);
         itemRepository.delete(existingItem);
+        domainEventPublisher.publish(DomainEventType.ITEM_DELETED, itemId, Map.of("ownerId", userId));
+        incrementRequestVersion(existingItem.getRequestId());
+        itemAvailabilityIndex.evict(itemId);
     }
 
     @Override
@@ -121,55 +198,77 @@ public class ItemServiceImpl implements ItemService {
     public ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto) {
         log.info("Обновление вещи с ID={} пользователем ID={}", itemId, userId);
 
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException(
-                        String.format("Вещь с ID=%d не найдена", itemId)));
-
-        if (!item.getUserId().equals(userId)) {
-            throw new UnauthorizedAccessException(
-                    String.format("Пользователь с ID=%d не является владельцем вещи c ID=%d", userId, itemId));
+        // Один UPDATE только по переданным полям с проверкой владельца в условии
+        boolean hasChanges = itemDto.getName() != null || itemDto.getDescription() != null
+                || itemDto.getAvailable() != null;
+        boolean updated = hasChanges && itemRepository.updateFields(itemId, userId, itemDto.getName(),
+                itemDto.getDescription(), itemDto.getAvailable()) > 0;
+        if (!updated) {
+            // Нечего менять или строка не обновлена: отличаем отсутствие вещи от чужой вещи
+            checkOwner(itemId, userId);
+        } else {
+            domainEventPublisher.publish(DomainEventType.ITEM_UPDATED, itemId, Map.of("ownerId", userId));
         }
 
-        // Обновляем только переданные поля
-        if (itemDto.getName() != null) {
-            item.setName(itemDto.getName());
-        }
-        if (itemDto.getDescription() != null) {
-            item.setDescription(itemDto.getDescription());
-        }
-        if (itemDto.getAvailable() != null) {
-            item.setAvailable(itemDto.getAvailable());
+        Item updatedItem = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException(
+                        String.format("Вещь с ID=%d не найдена", itemId)));
+        // Ответы по запросу меняются, только если строка вещи изменилась
+        if (updated) {
+            incrementRequestVersion(updatedItem.getRequestId());
         }
-
-        Item updatedItem = itemRepository.save(item);
         log.info("Вещь с ID={} обновлена", itemId);
 
         return itemMapper.mapToDto(updatedItem);
     }
 
     @Override
-    public List<ItemDto> searchItems(String text, Integer from, Integer size) {
+    public List<ItemDto> searchItems(String text, Integer from, Integer size, String cursor) {
         log.info("Поиск вещей по запросу: '{}'", text);
 
         if (text == null || text.isBlank()) {
             return List.of();
         }
 
-        Pageable pageable = createPageable(from, size);
+        KeysetPageRequest page = KeysetPageRequest.of(PageList.ITEM_SEARCH, from, size, cursor);
 
-        return itemRepository.search(text, pageable).stream()
+        return itemSearchIndex.search(text, page.afterId(), page.pageable().getOffset(), page.size()).stream()
                 .map(itemMapper::mapToDto)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<Item> getItemsByRequestId(Long requestId) {
+    public List<ItemDto> getItemsByRequestId(Long requestId) {
+        return itemRepository.findRowsByRequestId(requestId).stream()
+                .map(itemMapper::mapToDto)
+                .toList();
+    }
+
+    @Override
+    public List<ItemDto> getItemsByRequestIds(List<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return List.of();
+        }
+        return itemRepository.findRowsByRequestIdIn(requestIds).stream()
+                .map(itemMapper::mapToDto)
+                .toList();
+    }
+
+    // Вещи по запросу входят в ответ GET /requests/{id}
+    private void incrementRequestVersion(Long requestId) {
         if (requestId != null) {
-            itemRequestRepository.findById(requestId)
-                    .orElseThrow(() -> new NotFoundException("Запрос не найден"));
+            itemRequestRepository.incrementVersions(List.of(requestId));
         }
+    }
 
-        return itemRepository.findByRequestId(requestId);
+    private void checkOwner(Long itemId, Long userId) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException(
+                        String.format("Вещь с ID=%d не найдена", itemId)));
+        if (!item.getUserId().equals(userId)) {
+            throw new UnauthorizedAccessException(
+                    String.format("Пользователь с ID=%d не является владельцем вещи c ID=%d", userId, itemId));
+        }
     }
 
     private Item getItemByIdAndCheckOwner(Long itemId, Long userId) {
@@ -185,22 +284,69 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
-    public List<ItemDto> getUserItems(Long userId, Integer from, Integer size) {
+    public List<ItemDto> getUserItems(Long userId, Integer from, Integer size, String cursor) {
         log.info("Получение вещей пользователя с ID={}", userId);
 
-        Pageable pageable = createPageable(from, size);
+        KeysetPageRequest page = KeysetPageRequest.of(PageList.OWNER_ITEMS, from, size, cursor);
+        List<ItemRow> items = itemRepository.findRowsByUserIdAfter(userId, page.afterId(), page.pageable());
 
-        return itemRepository.findByUserIdOrderByIdAsc(userId, pageable).stream()
-                .map(itemMapper::mapToDto)
-                .collect(Collectors.toList());
+        return itemViewLoader.load(items, true);
+    }
+
+    private void saveChunk(List<PendingItem> chunk, ItemBatchResultDto[] results) {
+        try {
+            saveInTransaction(chunk, results);
+        } catch (DataAccessException | TransactionException e) {
+            // Фрагмент откатился целиком: сохраняем его вещи по одной, чтобы ошибка досталась только виновным
+            log.warn("Фрагмент из {} вещей не сохранен, повтор по одной: {}", chunk.size(), e.getMessage());
+            for (PendingItem pendingItem : chunk) {
+                try {
+                    saveInTransaction(List.of(pendingItem), results);
+                } catch (DataAccessException | TransactionException ex) {
+                    results[pendingItem.index()] = failed(pendingItem.index(), HttpStatus.BAD_REQUEST,
+                            "Не удалось сохранить вещь: " + ex.getMostSpecificCause().getMessage());
+                }
+            }
+        }
     }
 
-    private Pageable createPageable(Integer from, Integer size) {
-        if (from == null || size == null || from < 0 || size <= 0) {
-            throw new IllegalArgumentException("Некорректные параметры пагинации");
+    private void saveInTransaction(List<PendingItem> chunk, ItemBatchResultDto[] results) {
+        // После отката в сущностях остаются выданные id, их нужно сбросить перед повтором
+        chunk.forEach(pendingItem -> pendingItem.item().setId(null));
+        List<Item> items = chunk.stream()
+                .map(PendingItem::item)
+                .toList();
+
+        List<Item> savedItems = transactionTemplate.execute(status -> {
+            List<Item> saved = itemRepository.saveAll(items);
+            saved.forEach(this::publishItemCreated);
+            itemBookingSummaryService.itemsCreated(saved);
+            Set<Long> requestIds = saved.stream()
+                    .map(Item::getRequestId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            if (!requestIds.isEmpty()) {
+                itemRequestRepository.incrementVersions(requestIds);
+            }
+            return saved;
+        });
+
+        for (int i = 0; i < chunk.size(); i++) {
+            int index = chunk.get(i).index();
+            results[index] = ItemBatchResultDto.builder()
+                    .index(index)
+                    .status(HttpStatus.CREATED.value())
+                    .item(itemMapper.mapToDto(savedItems.get(i)))
+                    .build();
         }
-        int page = from / size;
-        return PageRequest.of(page, size);
+    }
+
+    private static ItemBatchResultDto failed(int index, HttpStatus status, String error) {
+        return ItemBatchResultDto.builder()
+                .index(index)
+                .status(status.value())
+                .error(error)
+                .build();
     }
 
     private void validateItemFields(Item item) {
@@ -220,39 +366,11 @@ public class ItemServiceImpl implements ItemService {
         log.info("Получение всех вещей владельца с ID={} с датами бронирований", ownerId);
 
         // Проверяем существование пользователя
-        userRepository.findById(ownerId)
-                .orElseThrow(() -> new NotFoundException(String.format("Пользователь c id=%d не найден", ownerId)));
-
-        List<Item> items = itemRepository.findByUserId(ownerId);
-        List<ItemDto> itemDtos = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
-
-        for (Item item : items) {
-            ItemDto itemDto = itemMapper.mapToDto(item);
-
-            // Последнее бронирование (прошедшее)
-            Optional<Booking> lastBooking = bookingRepository
-                    .findFirstByItemIdAndEndBeforeOrderByEndDesc(item.getId(), now);
-            lastBooking.ifPresent(booking ->
-                    itemDto.setLastBooking(bookingMapper.mapToShortDto(booking)));
-
-            // Следующее бронирование (будущее)
-            Optional<Booking> nextBooking = bookingRepository
-                    .findFirstByItemIdAndStartAfterOrderByStartAsc(item.getId(), now);
-            nextBooking.ifPresent(booking ->
-                    itemDto.setNextBooking(bookingMapper.mapToShortDto(booking)));
-
-            // Добавляем комментарии
-            List<Comment> comments = commentRepository.findByItemIdOrderByCreatedDesc(item.getId());
-            List<CommentDto> commentDtos = comments.stream()
-                    .map(CommentMapper::toCommentDto)
-                    .collect(Collectors.toList());
-            itemDto.setComments(commentDtos);
-
-            itemDtos.add(itemDto);
-        }
+        userService.getUserSnapshotById(ownerId);
 
-        return itemDtos;
+        List<ItemRow> items = itemRepository.findRowsByUserId(ownerId);
+
+        return itemViewLoader.load(items, true);
     }
 
     @Override
@@ -284,8 +402,34 @@ public class ItemServiceImpl implements ItemService {
         comment.setCreated(LocalDateTime.now());
 
         Comment savedComment = commentRepository.save(comment);
+        itemRepository.incrementVersion(itemId);
+        domainEventPublisher.publish(DomainEventType.COMMENT_ADDED, itemId,
+                Map.of("commentId", savedComment.getId(), "authorId", userId));
         log.info("Комментарий добавлен с ID={}", savedComment.getId());
 
         return CommentMapper.toCommentDto(savedComment);
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<CommentDto> getItemComments(Long itemId, Integer from, Integer size, String cursor) {
+        log.info("Получение комментариев вещи ID={}", itemId);
+
+        KeysetPageRequest page = KeysetPageRequest.of(PageList.ITEM_COMMENTS, from, size, cursor);
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException(String.format("Вещь c id=%d не найдена", itemId));
+        }
+
+        return commentRepository.findRowsByItemIdBefore(itemId, page.beforeTimestamp(), page.beforeId(),
+                        page.pageable()).stream()
+                .map(CommentMapper::toCommentDto)
+                .toList();
+    }
+
+    private void publishItemCreated(Item item) {
+        domainEventPublisher.publish(DomainEventType.ITEM_CREATED, item.getId(),
+                Map.of("ownerId", item.getUserId(), "available", item.getAvailable()));
+    }
+
+    private record PendingItem(int index, Item item) {
+    }
+}
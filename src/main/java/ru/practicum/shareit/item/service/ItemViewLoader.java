@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.mapper.CommentMapper;
+import ru.practicum.shareit.item.dto.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.CommentPreviewRow;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.model.ItemRow;
+import ru.practicum.shareit.item.repository.CommentRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Собирает ItemDto с комментариями и датами бронирований для набора вещей.
+ * Количество запросов не зависит от числа вещей: последнее и следующее бронирование
+ * берутся из сводок ItemBookingSummary, оконная выборка бронирований нужна только
+ * для вещей без актуальной сводки. Комментарии - одна оконная выборка через IN:
+ * не больше commentsPreviewSize последних на вещь и общее число. Вещи и комментарии
+ * приходят строками-проекциями, сущности не загружаются.
+ */
+@Component
+public class ItemViewLoader {
+    private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryService summaryService;
+    private final CommentRepository commentRepository;
+    private final ItemMapper itemMapper;
+    private final BookingMapper bookingMapper;
+    private final int commentsPreviewSize;
+
+    public ItemViewLoader(BookingRepository bookingRepository,
+                          ItemBookingSummaryService summaryService,
+                          CommentRepository commentRepository,
+                          ItemMapper itemMapper,
+                          BookingMapper bookingMapper,
+                          @Value("${shareit.item.comments-preview-size:10}") int commentsPreviewSize) {
+        this.bookingRepository = bookingRepository;
+        this.summaryService = summaryService;
+        this.commentRepository = commentRepository;
+        this.itemMapper = itemMapper;
+        this.bookingMapper = bookingMapper;
+        this.commentsPreviewSize = commentsPreviewSize;
+    }
+
+    public ItemDto load(ItemRow item, boolean withBookings) {
+        return load(List.of(item), withBookings).get(0);
+    }
+
+    public List<ItemDto> load(List<ItemRow> items, boolean withBookings) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> itemIds = new ArrayList<>(items.size());
+        for (ItemRow item : items) {
+            itemIds.add(item.id());
+        }
+
+        Map<Long, List<CommentDto>> commentsByItem = new HashMap<>();
+        Map<Long, Long> commentsCounts = new HashMap<>();
+        for (CommentPreviewRow row : commentRepository.findNewestRowsByItemIdIn(itemIds, commentsPreviewSize)) {
+            commentsByItem.computeIfAbsent(row.itemId(), id -> new ArrayList<>())
+                    .add(CommentMapper.toCommentDto(row.comment()));
+            commentsCounts.put(row.itemId(), row.itemCommentsCount());
+        }
+
+        Map<Long, BookingShortDto> lastBookings = new HashMap<>();
+        Map<Long, BookingShortDto> nextBookings = new HashMap<>();
+        if (withBookings) {
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, ItemBookingSummary> summaries = summaryService.findFresh(itemIds, now);
+            summaries.forEach((itemId, summary) -> {
+                lastBookings.put(itemId, bookingMapper.mapToShortDto(summary.getLastBookingId(),
+                        summary.getLastBookerId()));
+                nextBookings.put(itemId, bookingMapper.mapToShortDto(summary.getNextBookingId(),
+                        summary.getNextBookerId()));
+            });
+
+            List<Long> withoutSummary = new ArrayList<>(itemIds.size() - summaries.size());
+            for (Long itemId : itemIds) {
+                if (!summaries.containsKey(itemId)) {
+                    withoutSummary.add(itemId);
+                }
+            }
+            if (!withoutSummary.isEmpty()) {
+                for (Booking booking : bookingRepository.findLastAndNextBookings(withoutSummary, now)) {
+                    // Одно бронирование не может одновременно закончиться и еще не начаться
+                    if (booking.getEnd().isBefore(now)) {
+                        lastBookings.put(booking.getItemId(), bookingMapper.mapToShortDto(booking));
+                    } else {
+                        nextBookings.put(booking.getItemId(), bookingMapper.mapToShortDto(booking));
+                    }
+                }
+            }
+        }
+
+        List<ItemDto> itemDtos = new ArrayList<>(items.size());
+        for (ItemRow item : items) {
+            ItemDto itemDto = itemMapper.mapToDto(item);
+            itemDto.setComments(commentsByItem.getOrDefault(item.id(), List.of()));
+            itemDto.setCommentsCount(commentsCounts.getOrDefault(item.id(), 0L));
+            if (withBookings) {
+                itemDto.setLastBooking(lastBookings.get(item.id()));
+                itemDto.setNextBooking(nextBookings.get(item.id()));
+            }
+            itemDtos.add(itemDto);
+        }
+        return itemDtos;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.ItemSummaryCheckReport;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+
+import java.util.Map;
+
+/**
+ * /actuator/itemsummary: GET сверяет сводки бронирований с таблицами,
+ * POST строит их заново для всех вещей.
+ */
+@Component
+@Endpoint(id = "itemsummary")
+@RequiredArgsConstructor
+public class ItemSummaryEndpoint {
+    private final ItemBookingSummaryService summaryService;
+
+    @ReadOperation
+    public ItemSummaryCheckReport check() {
+        return summaryService.check();
+    }
+
+    @WriteOperation
+    public Map<String, Long> rebuild() {
+        return Map.of("rebuilt", summaryService.rebuild());
+    }
+}
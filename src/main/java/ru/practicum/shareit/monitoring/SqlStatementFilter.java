@@ -0,0 +1,62 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Открывает область учета SQL на каждый HTTP-запрос и публикует результат:
+ * shareit.sql.statements - число запросов к БД на один HTTP-запрос,
+ * shareit.sql.n_plus_one - HTTP-запросы с повторяющимся SQL (теги method и uri).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SqlStatementFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementStatistics statistics = SqlStatementInspector.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementInspector.stop(statistics);
+            publish(request, statistics);
+        }
+    }
+
+    private void publish(HttpServletRequest request, SqlStatementStatistics statistics) {
+        // Шаблон пути, а не сам путь, чтобы id в URL не раздували число тегов
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("shareit.sql.statements")
+                .baseUnit("statements")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(meterRegistry)
+                .record(statistics.total());
+
+        Map<String, Integer> suspected = statistics.suspectedNPlusOne();
+        if (!suspected.isEmpty()) {
+            Counter.builder("shareit.sql.n_plus_one")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("Возможный N+1 в {} {}: {}", request.getMethod(), uri, suspected);
+        }
+    }
+}
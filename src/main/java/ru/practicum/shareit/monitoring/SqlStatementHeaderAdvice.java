@@ -0,0 +1,42 @@
+package ru.practicum.shareit.monitoring;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Добавляет в ответы число выполненных SQL-запросов и подозрений на N+1.
+ * Заголовки пишутся перед телом ответа, пока он еще не отправлен. Раскрывают детали работы
+ * с БД, поэтому включаются явно: shareit.sql.debug-headers=true.
+ */
+@RestControllerAdvice
+@ConditionalOnProperty(name = "shareit.sql.debug-headers", havingValue = "true")
+public class SqlStatementHeaderAdvice implements ResponseBodyAdvice<Object> {
+    public static final String STATEMENT_COUNT_HEADER = "X-Sql-Statement-Count";
+    public static final String N_PLUS_ONE_HEADER = "X-Sql-N-Plus-One";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatementStatistics statistics = SqlStatementInspector.current();
+        if (statistics != null) {
+            response.getHeaders().set(STATEMENT_COUNT_HEADER, String.valueOf(statistics.total()));
+            int suspected = statistics.suspectedNPlusOne().size();
+            if (suspected > 0) {
+                response.getHeaders().set(N_PLUS_ONE_HEADER, String.valueOf(suspected));
+            }
+        }
+        return body;
+    }
+}
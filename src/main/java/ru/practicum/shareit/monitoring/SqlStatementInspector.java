@@ -0,0 +1,38 @@
+package ru.practicum.shareit.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Считает SQL, который Hibernate готовит к выполнению в текущем потоке.
+ * Учет ведется только внутри области, открытой через start(), и не меняет SQL.
+ */
+public class SqlStatementInspector implements StatementInspector {
+    private static final ThreadLocal<SqlStatementStatistics> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatementStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.record(sql);
+        }
+        return sql;
+    }
+
+    public static SqlStatementStatistics start() {
+        SqlStatementStatistics statistics = new SqlStatementStatistics(CURRENT.get());
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static void stop(SqlStatementStatistics statistics) {
+        if (statistics.parent() == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(statistics.parent());
+        }
+    }
+
+    public static SqlStatementStatistics current() {
+        return CURRENT.get();
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * SQL-запросы, выполненные в одной области: HTTP-запросе или блоке кода в тесте.
+ * Hibernate передает SQL с плейсхолдерами, поэтому один и тот же запрос с разными
+ * параметрами дает одинаковую строку; ее повторы внутри области - признак N+1.
+ */
+public final class SqlStatementStatistics {
+    // Сколько раз одна строка SQL должна повториться, чтобы считаться подозрением на N+1
+    public static final int N_PLUS_ONE_THRESHOLD = 3;
+
+    private final SqlStatementStatistics parent;
+    private final Map<String, Integer> counts = new LinkedHashMap<>();
+    private int total;
+
+    SqlStatementStatistics(SqlStatementStatistics parent) {
+        this.parent = parent;
+    }
+
+    // Вложенные области (фильтр внутри теста) учитываются и во внешней
+    void record(String sql) {
+        total++;
+        counts.merge(sql, 1, Integer::sum);
+        if (parent != null) {
+            parent.record(sql);
+        }
+    }
+
+    SqlStatementStatistics parent() {
+        return parent;
+    }
+
+    public int total() {
+        return total;
+    }
+
+    // Уникальные строки SQL в порядке первого выполнения
+    public List<String> statements() {
+        return List.copyOf(counts.keySet());
+    }
+
+    public Map<String, Integer> suspectedNPlusOne() {
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getValue() >= N_PLUS_ONE_THRESHOLD)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                        (first, second) -> first, LinkedHashMap::new));
+    }
+}
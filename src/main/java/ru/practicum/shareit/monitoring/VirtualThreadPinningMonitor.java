@@ -0,0 +1,68 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Следит за событиями JFR jdk.VirtualThreadPinned: виртуальный поток не смог отпустить
+ * платформенный, например из-за блокировки внутри synchronized. Событие привязывается
+ * к первому кадру стека из нашего кода и считается в shareit.virtual.pinned.
+ */
+@Component
+@Profile("virtual")
+@RequiredArgsConstructor
+@Slf4j
+public class VirtualThreadPinningMonitor {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String OWN_PACKAGE = "ru.practicum.shareit.";
+    private static final Duration THRESHOLD = Duration.ofMillis(20);
+
+    private final MeterRegistry meterRegistry;
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("Виртуальные потоки требуют Java 21, текущая версия {}: профиль virtual работает " +
+                    "на платформенных потоках", Runtime.version());
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(THRESHOLD).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::report);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        String location = "unknown";
+        if (event.getStackTrace() != null) {
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                String type = frame.getMethod().getType().getName();
+                if (type.startsWith(OWN_PACKAGE)) {
+                    location = type + "." + frame.getMethod().getName();
+                    break;
+                }
+            }
+        }
+        meterRegistry.counter("shareit.virtual.pinned", "location", location).increment();
+        log.warn("Виртуальный поток закреплен на {} мс, место в коде: {}", event.getDuration().toMillis(), location);
+    }
+}
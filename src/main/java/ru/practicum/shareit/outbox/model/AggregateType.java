@@ -0,0 +1,7 @@
+package ru.practicum.shareit.outbox.model;
+
+public enum AggregateType {
+    ITEM,
+    BOOKING,
+    USER
+}
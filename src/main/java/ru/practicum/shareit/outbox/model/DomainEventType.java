@@ -0,0 +1,22 @@
+package ru.practicum.shareit.outbox.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Доменные события и агрегат, к которому относится aggregateId события.
+ * Комментарий - событие вещи: порядок важен относительно ее изменений.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum DomainEventType {
+    ITEM_CREATED(AggregateType.ITEM),
+    ITEM_UPDATED(AggregateType.ITEM),
+    ITEM_DELETED(AggregateType.ITEM),
+    COMMENT_ADDED(AggregateType.ITEM),
+    BOOKING_CREATED(AggregateType.BOOKING),
+    BOOKING_STATUS_CHANGED(AggregateType.BOOKING),
+    USER_DELETED(AggregateType.USER);
+
+    private final AggregateType aggregateType;
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.outbox.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие outbox, которое проекция так и не смогла обработать за отведенное число попыток.
+ * Хранится для разбора и ручной повторной отправки; id совпадает с id исходного события.
+ * Если событие не обработали несколько узлов, запись остается от первого из них.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_dead_letters")
+public class OutboxDeadLetter {
+    @Id
+    Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", nullable = false, length = 32)
+    AggregateType aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 64)
+    DomainEventType eventType;
+
+    @Column(name = "payload", nullable = false, length = 2000)
+    String payload;
+
+    @Column(name = "created_at", nullable = false)
+    LocalDateTime createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    int attempts;
+
+    // Узел и проекция, на которых доставка остановилась, и текст ошибки
+    @Column(name = "node_id", length = 64)
+    String nodeId;
+
+    @Column(name = "handler", nullable = false, length = 64)
+    String handler;
+
+    @Column(name = "error", length = 1000)
+    String error;
+
+    @Column(name = "failed_at", nullable = false)
+    LocalDateTime failedAt;
+}
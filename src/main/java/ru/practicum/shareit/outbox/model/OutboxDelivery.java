@@ -0,0 +1,42 @@
+package ru.practicum.shareit.outbox.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Отметка о том, что узел доставил событие своим проекциям. Событие удаляется из outbox,
+ * когда отметки есть у всех живых узлов.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_deliveries")
+@IdClass(OutboxDelivery.Key.class)
+public class OutboxDelivery {
+    @Id
+    @Column(name = "node_id", length = 64)
+    String nodeId;
+
+    @Id
+    @Column(name = "event_id")
+    Long eventId;
+
+    @Column(name = "delivered_at", nullable = false)
+    LocalDateTime deliveredAt;
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        String nodeId;
+        Long eventId;
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.outbox.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись transactional outbox: доменное событие, сохраненное в той же транзакции,
+ * что и изменение. Удаляется, когда его доставили проекциям все живые узлы (OutboxDelivery).
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+    // Событие пишет почти каждая запись, поэтому пул id крупнее, чем у остальных таблиц
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 500)
+    Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", nullable = false, length = 32)
+    AggregateType aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 64)
+    DomainEventType eventType;
+
+    // JSON с полями события; проекции, которым нужно текущее состояние, читают его из БД
+    @Column(name = "payload", nullable = false, length = 2000)
+    String payload;
+
+    @Column(name = "created_at", nullable = false)
+    LocalDateTime createdAt;
+}
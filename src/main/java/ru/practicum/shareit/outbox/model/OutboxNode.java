@@ -0,0 +1,31 @@
+package ru.practicum.shareit.outbox.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Узел, который доставляет события outbox своим проекциям. Id новый при каждом запуске:
+ * проекции в памяти строятся заново, и старые отметки доставки к ним не относятся.
+ * Узел без отметки heartbeat дольше shareit.outbox.node-ttl-ms считается выбывшим.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbox_nodes")
+public class OutboxNode {
+    @Id
+    @Column(name = "node_id", length = 64)
+    String nodeId;
+
+    @Column(name = "started_at", nullable = false)
+    LocalDateTime startedAt;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    LocalDateTime heartbeatAt;
+}
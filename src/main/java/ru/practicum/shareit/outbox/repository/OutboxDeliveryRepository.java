@@ -0,0 +1,30 @@
+package ru.practicum.shareit.outbox.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.outbox.model.OutboxDelivery;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface OutboxDeliveryRepository extends JpaRepository<OutboxDelivery, OutboxDelivery.Key> {
+
+    // Отметки для пакета одним INSERT ... SELECT
+    @Modifying
+    @Query("INSERT INTO OutboxDelivery (nodeId, eventId, deliveredAt) " +
+            "SELECT :nodeId, e.id, :deliveredAt FROM OutboxEvent e WHERE e.id IN :eventIds")
+    int markDelivered(@Param("nodeId") String nodeId,
+                      @Param("eventIds") Collection<Long> eventIds,
+                      @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    // Отметки удаленных событий и выбывших узлов
+    @Modifying
+    @Query("DELETE FROM OutboxDelivery d " +
+            "WHERE NOT EXISTS (SELECT e.id FROM OutboxEvent e WHERE e.id = d.eventId) " +
+            "OR NOT EXISTS (SELECT n.nodeId FROM OutboxNode n WHERE n.nodeId = d.nodeId)")
+    int deleteOrphaned();
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.outbox.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // События, которые узел еще не доставил своим проекциям, по возрастанию id
+    @Query("SELECT e FROM OutboxEvent e " +
+            "WHERE NOT EXISTS (SELECT d.eventId FROM OutboxDelivery d WHERE d.nodeId = :nodeId AND d.eventId = e.id) " +
+            "ORDER BY e.id")
+    List<OutboxEvent> findUndelivered(@Param("nodeId") String nodeId, Pageable pageable);
+
+    // События, отмеченные доставленными у каждого узла из outbox_nodes
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE NOT EXISTS (SELECT n.nodeId FROM OutboxNode n WHERE NOT EXISTS " +
+            "(SELECT d.eventId FROM OutboxDelivery d WHERE d.nodeId = n.nodeId AND d.eventId = e.id))")
+    int deleteDeliveredToAllNodes();
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.outbox.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.outbox.model.OutboxNode;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface OutboxNodeRepository extends JpaRepository<OutboxNode, String> {
+    // Захват потока доставки узла до конца транзакции. Пусто, если строку держит параллельный
+    // опрос того же узла или узла нет. Нативный запрос: H2Dialect не выводит SKIP LOCKED
+    // из подсказки lock.timeout = -2 и ждал бы блокировку, а H2 и PostgreSQL понимают синтаксис
+    @Query(value = "SELECT * FROM outbox_nodes WHERE node_id = :nodeId FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<OutboxNode> claim(@Param("nodeId") String nodeId);
+
+    @Modifying
+    @Query("DELETE FROM OutboxNode n WHERE n.heartbeatAt < :aliveAfter")
+    int deleteExpired(@Param("aliveAfter") LocalDateTime aliveAfter);
+}
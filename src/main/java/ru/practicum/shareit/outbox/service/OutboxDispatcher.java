@@ -0,0 +1,339 @@
+package ru.practicum.shareit.outbox.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.model.DomainEventType;
+import ru.practicum.shareit.outbox.model.OutboxDeadLetter;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxNode;
+import ru.practicum.shareit.outbox.repository.OutboxDeadLetterRepository;
+import ru.practicum.shareit.outbox.repository.OutboxDeliveryRepository;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.outbox.repository.OutboxNodeRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Доставляет события outbox проекциям этого узла пакетами. Проекции (поисковый индекс вещей)
+ * живут в памяти узла, поэтому событие получает каждый узел: узел отмечает доставленные события
+ * в outbox_deliveries, а событие удаляется, когда его доставили все живые узлы из outbox_nodes.
+ * Поток доставки узла захватывается его строкой outbox_nodes через FOR UPDATE SKIP LOCKED:
+ * параллельный опрос на том же узле пропускает запуск и не доставляет события повторно.
+ * События читаются по возрастанию id. Id выдаются каждому узлу пулами (allocationSize), поэтому
+ * события разных узлов идут не в порядке записи: проекции не должны зависеть от порядка
+ * (ItemSearchProjection перечитывает текущее состояние вещей).
+ * Пакет доставляется всем проекциям и отмечается в одной транзакции; сбой любой проекции
+ * откатывает отметку, и события того же пакета доставляются по одному до первого сбоя.
+ * Сбойное событие остается первым в очереди узла; после maxAttempts попыток оно переносится
+ * в outbox_dead_letters и отмечается доставленным для этого узла, и очередь идет дальше.
+ * Узел без heartbeat дольше nodeTtl удаляется вместе с отметками; если он на самом деле жив
+ * (долгая пауза), то регистрируется заново и перестраивает проекции.
+ * Метрики: shareit.outbox.lag (от записи до доставки), shareit.outbox.oldest.age
+ * (возраст старейшего недоставленного узлом события), shareit.outbox.delivered по типам,
+ * shareit.outbox.handler, shareit.outbox.failures и shareit.outbox.dead.letters по проекциям.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDeliveryRepository outboxDeliveryRepository;
+    private final OutboxNodeRepository outboxNodeRepository;
+    private final OutboxDeadLetterRepository outboxDeadLetterRepository;
+    private final List<ProjectionHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final int maxAttempts;
+    private final Duration nodeTtl;
+
+    // Id узла новый при каждом запуске: проекции в памяти строятся заново
+    private final String nodeId = UUID.randomUUID().toString();
+    // Неудачные попытки доставки событий проекциям этого узла
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    private final Timer lag;
+    private final AtomicLong oldestPendingMs = new AtomicLong();
+    private final Map<DomainEventType, Counter> delivered = new EnumMap<>(DomainEventType.class);
+    private final Map<String, Timer> handlerTimers;
+    private final Map<String, Counter> handlerFailures;
+    private final Map<String, Counter> deadLetters;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            OutboxDeliveryRepository outboxDeliveryRepository,
+                            OutboxNodeRepository outboxNodeRepository,
+                            OutboxDeadLetterRepository outboxDeadLetterRepository,
+                            List<ProjectionHandler> handlers,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.outbox.batch-size:200}") int batchSize,
+                            @Value("${shareit.outbox.max-batches-per-run:50}") int maxBatchesPerRun,
+                            @Value("${shareit.outbox.max-attempts:5}") int maxAttempts,
+                            @Value("${shareit.outbox.node-ttl-ms:60000}") long nodeTtlMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxDeliveryRepository = outboxDeliveryRepository;
+        this.outboxNodeRepository = outboxNodeRepository;
+        this.outboxDeadLetterRepository = outboxDeadLetterRepository;
+        this.handlers = List.copyOf(handlers);
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxAttempts = maxAttempts;
+        this.nodeTtl = Duration.ofMillis(nodeTtlMillis);
+
+        this.lag = Timer.builder("shareit.outbox.lag")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("shareit.outbox.oldest.age", oldestPendingMs, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        for (DomainEventType type : DomainEventType.values()) {
+            delivered.put(type, Counter.builder("shareit.outbox.delivered")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+        this.handlerTimers = this.handlers.stream().collect(Collectors.toMap(
+                ProjectionHandler::name,
+                handler -> Timer.builder("shareit.outbox.handler").tag("handler", handler.name())
+                        .register(meterRegistry)));
+        this.handlerFailures = this.handlers.stream().collect(Collectors.toMap(
+                ProjectionHandler::name,
+                handler -> Counter.builder("shareit.outbox.failures").tag("handler", handler.name())
+                        .register(meterRegistry)));
+        this.deadLetters = this.handlers.stream().collect(Collectors.toMap(
+                ProjectionHandler::name,
+                handler -> Counter.builder("shareit.outbox.dead.letters").tag("handler", handler.name())
+                        .register(meterRegistry)));
+        log.info("Проекции событий outbox: {}", this.handlers.stream().map(ProjectionHandler::name).toList());
+    }
+
+    // Узел регистрируется до того, как проекции строятся по БД при старте: события, записанные
+    // после регистрации, не удалятся, пока узел их не доставит
+    @PostConstruct
+    public void register() {
+        transactionTemplate.executeWithoutResult(status -> outboxNodeRepository.save(newNode()));
+        log.info("Узел outbox {} зарегистрирован", nodeId);
+    }
+
+    // Остальным узлам не нужно ждать nodeTtl, чтобы удалять события без этого узла
+    @PreDestroy
+    public void deregister() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxNodeRepository.deleteById(nodeId));
+        } catch (RuntimeException e) {
+            log.warn("Узел outbox {} не снят с учета, его удалит очистка через {}", nodeId, nodeTtl, e);
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    // Опрос продолжается, пока пакеты полные, но не дольше maxBatchesPerRun пакетов за запуск
+    @Scheduled(initialDelayString = "${shareit.outbox.poll-interval-ms}",
+            fixedDelayString = "${shareit.outbox.poll-interval-ms}")
+    public int dispatch() {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer count;
+            try {
+                count = transactionTemplate.execute(status -> dispatchBatch());
+            } catch (RuntimeException e) {
+                log.warn("Пакет событий outbox не доставлен, события доставляются по одному", e);
+                total += dispatchOneByOne();
+                break;
+            }
+            // null - поток доставки узла занят параллельным опросом
+            if (count == null) {
+                return total;
+            }
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        cleanUp();
+        return total;
+    }
+
+    private Integer dispatchBatch() {
+        if (!claimNode()) {
+            return null;
+        }
+        List<OutboxEvent> events = outboxEventRepository.findUndelivered(nodeId, PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            oldestPendingMs.set(0);
+            return 0;
+        }
+        oldestPendingMs.set(Duration.between(events.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+        deliverAndMark(events);
+        return events.size();
+    }
+
+    // Доставка по одному до первого события, которое еще не исчерпало попытки:
+    // оно останется первым в очереди узла, и порядок доставки сохранится
+    private int dispatchOneByOne() {
+        int count = 0;
+        for (OutboxEvent event : outboxEventRepository.findUndelivered(nodeId, PageRequest.of(0, batchSize))) {
+            try {
+                Boolean done = transactionTemplate.execute(status -> {
+                    if (!claimNode()) {
+                        return false;
+                    }
+                    deliverAndMark(List.of(event));
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(done)) {
+                    break;
+                }
+                count++;
+            } catch (DeliveryFailure e) {
+                if (!recordFailure(event, e)) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                log.error("Событие outbox ID={} не доставлено, повтор при следующем опросе", event.getId(), e);
+                break;
+            }
+        }
+        return count;
+    }
+
+    // Захват строки узла и heartbeat; false - строку держит параллельный опрос этого узла
+    private boolean claimNode() {
+        Optional<OutboxNode> node = outboxNodeRepository.claim(nodeId);
+        if (node.isPresent()) {
+            node.get().setHeartbeatAt(LocalDateTime.now());
+            return true;
+        }
+        if (outboxNodeRepository.existsById(nodeId)) {
+            return false;
+        }
+        // Узел посчитали выбывшим: события, которые он не доставил, могли удалить
+        log.warn("Узел outbox {} не найден среди живых узлов, проекции перестраиваются", nodeId);
+        outboxNodeRepository.save(newNode());
+        failedAttempts.clear();
+        handlers.forEach(ProjectionHandler::rebuild);
+        return true;
+    }
+
+    // true - событие перенесено в outbox_dead_letters и очередь узла может идти дальше
+    private boolean recordFailure(OutboxEvent event, DeliveryFailure failure) {
+        int attempts = failedAttempts.merge(event.getId(), 1, Integer::sum);
+        if (attempts < maxAttempts) {
+            log.warn("Событие outbox ID={} ({}) не обработано проекцией {}, попытка {} из {}",
+                    event.getId(), event.getEventType(), failure.handler, attempts, maxAttempts);
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Если событие уже не обработал другой узел, остается его запись
+            if (!outboxDeadLetterRepository.existsById(event.getId())) {
+                outboxDeadLetterRepository.save(OutboxDeadLetter.builder()
+                        .id(event.getId())
+                        .aggregateType(event.getAggregateType())
+                        .aggregateId(event.getAggregateId())
+                        .eventType(event.getEventType())
+                        .payload(event.getPayload())
+                        .createdAt(event.getCreatedAt())
+                        .attempts(attempts)
+                        .nodeId(nodeId)
+                        .handler(failure.handler)
+                        .error(abbreviate(String.valueOf(failure.getCause().getMessage())))
+                        .failedAt(LocalDateTime.now())
+                        .build());
+            }
+            outboxDeliveryRepository.markDelivered(nodeId, List.of(event.getId()), LocalDateTime.now());
+        });
+        failedAttempts.remove(event.getId());
+        deadLetters.get(failure.handler).increment();
+        log.error("Событие outbox ID={} ({}) перенесено в outbox_dead_letters после {} попыток, проекция {}",
+                event.getId(), event.getEventType(), attempts, failure.handler, failure.getCause());
+        return true;
+    }
+
+    private void deliverAndMark(List<OutboxEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        for (ProjectionHandler handler : handlers) {
+            List<OutboxEvent> relevant = events.stream()
+                    .filter(event -> handler.eventTypes().contains(event.getEventType()))
+                    .toList();
+            if (!relevant.isEmpty()) {
+                deliver(handler, relevant);
+            }
+        }
+
+        List<Long> eventIds = events.stream().map(OutboxEvent::getId).toList();
+        outboxDeliveryRepository.markDelivered(nodeId, eventIds, now);
+        eventIds.forEach(failedAttempts::remove);
+        for (OutboxEvent event : events) {
+            lag.record(Duration.between(event.getCreatedAt(), now));
+            delivered.get(event.getEventType()).increment();
+        }
+    }
+
+    private void deliver(ProjectionHandler handler, List<OutboxEvent> events) {
+        try {
+            handlerTimers.get(handler.name()).record(() -> handler.handle(events));
+        } catch (RuntimeException e) {
+            handlerFailures.get(handler.name()).increment();
+            throw new DeliveryFailure(handler.name(), e);
+        }
+    }
+
+    // Выбывшие узлы, события, доставленные всеми живыми узлами, и ставшие ненужными отметки.
+    // Идемпотентна: параллельная очистка на другом узле удаляет те же строки
+    private void cleanUp() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                outboxNodeRepository.deleteExpired(LocalDateTime.now().minus(nodeTtl));
+                outboxEventRepository.deleteDeliveredToAllNodes();
+                outboxDeliveryRepository.deleteOrphaned();
+            });
+        } catch (RuntimeException e) {
+            log.warn("Очистка outbox не выполнена, повтор при следующем опросе", e);
+        }
+    }
+
+    private OutboxNode newNode() {
+        LocalDateTime now = LocalDateTime.now();
+        return OutboxNode.builder()
+                .nodeId(nodeId)
+                .startedAt(now)
+                .heartbeatAt(now)
+                .build();
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    // Сбой проекции с ее именем: по нему считается метрика и заполняется outbox_dead_letters
+    private static final class DeliveryFailure extends RuntimeException {
+        private final String handler;
+
+        DeliveryFailure(String handler, RuntimeException cause) {
+            super("Проекция " + handler + " не обработала события outbox", cause);
+            this.handler = handler;
+        }
+    }
+}
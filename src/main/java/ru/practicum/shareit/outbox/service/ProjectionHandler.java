@@ -0,0 +1,29 @@
+package ru.practicum.shareit.outbox.service;
+
+import ru.practicum.shareit.outbox.model.DomainEventType;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Проекция, которую OutboxDispatcher кормит доменными событиями. Достаточно объявить
+ * реализацию бином. Проекция живет на каждом узле, и каждый узел получает все события.
+ * Доставка "хотя бы один раз": после сбоя пакет приходит снова, поэтому обработка должна
+ * быть идемпотентной. Порядок событий между узлами не гарантирован.
+ */
+public interface ProjectionHandler {
+
+    // Имя для логов и тега handler в метриках
+    String name();
+
+    // Типы событий проекции; остальные ей не передаются
+    Set<DomainEventType> eventTypes();
+
+    // События пакета по возрастанию id, внутри транзакции диспетчера
+    void handle(List<OutboxEvent> events);
+
+    // Построить состояние заново по БД: узел мог пропустить удаленные без него события
+    default void rebuild() {
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.pagination;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.LocalDateTime;
+
+/**
+ * Параметры страницы: либо смещение from/size, либо курсор и size. Неверные from, size
+ * и курсор - ValidationException (400).
+ * Запросы всегда содержат условие поиска по ключу; без курсора подставляется
+ * граница, под которую попадают все записи, и используется смещение from.
+ */
+public class KeysetPageRequest {
+    // Граница для списков по убыванию даты, когда курсор не передан
+    private static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final PageCursor cursor;
+    private final Pageable pageable;
+
+    private KeysetPageRequest(PageCursor cursor, Pageable pageable) {
+        this.cursor = cursor;
+        this.pageable = pageable;
+    }
+
+    public static KeysetPageRequest of(PageList list, Integer from, Integer size, String cursor) {
+        if (size == null || size <= 0) {
+            throw new ValidationException("Параметр 'size' должен быть положительным");
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            return new KeysetPageRequest(PageCursor.decode(cursor, list), new OffsetPageRequest(0, size));
+        }
+        if (from == null || from < 0) {
+            throw new ValidationException("Параметр 'from' не может быть отрицательным");
+        }
+        return new KeysetPageRequest(null, new OffsetPageRequest(from, size));
+    }
+
+    public Pageable pageable() {
+        return pageable;
+    }
+
+    public int size() {
+        return pageable.getPageSize();
+    }
+
+    // Для сортировки по (дата, id) по убыванию: записи строго после курсора
+    public LocalDateTime beforeTimestamp() {
+        if (cursor == null) {
+            return MAX_TIMESTAMP;
+        }
+        if (cursor.timestamp() == null) {
+            throw new ValidationException("Курсор не подходит для этого списка");
+        }
+        return cursor.timestamp();
+    }
+
+    public Long beforeId() {
+        return cursor == null ? Long.MAX_VALUE : cursor.id();
+    }
+
+    // Для сортировки по id по возрастанию
+    public Long afterId() {
+        return cursor == null ? 0L : cursor.id();
+    }
+}
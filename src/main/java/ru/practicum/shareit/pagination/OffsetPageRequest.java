@@ -0,0 +1,53 @@
+package ru.practicum.shareit.pagination;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Pageable со смещением ровно from, а не (from / size) * size.
+ */
+public class OffsetPageRequest extends PageRequest {
+    private final long offset;
+
+    public OffsetPageRequest(long offset, int size) {
+        super(0, size, Sort.unsorted());
+        this.offset = offset;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / getPageSize());
+    }
+
+    @Override
+    public PageRequest next() {
+        return new OffsetPageRequest(offset + getPageSize(), getPageSize());
+    }
+
+    @Override
+    public PageRequest previous() {
+        return new OffsetPageRequest(Math.max(0, offset - getPageSize()), getPageSize());
+    }
+
+    @Override
+    public PageRequest first() {
+        return new OffsetPageRequest(0, getPageSize());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof OffsetPageRequest other
+                && offset == other.offset
+                && getPageSize() == other.getPageSize();
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(offset) + getPageSize();
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.pagination;
+
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор keyset-пагинации: список, выдавший курсор, ключ сортировки и id последней
+ * записи страницы. Для списков, отсортированных только по id, timestamp равен null.
+ */
+public record PageCursor(PageList list, LocalDateTime timestamp, Long id) {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String SEPARATOR = "|";
+
+    public static PageCursor of(PageList list, Long id) {
+        return new PageCursor(list, null, id);
+    }
+
+    public static PageCursor of(PageList list, LocalDateTime timestamp, Long id) {
+        return new PageCursor(list, timestamp, id);
+    }
+
+    public String encode() {
+        String raw = list.name() + SEPARATOR + (timestamp == null ? "" : timestamp.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Курсор другого списка отклоняется: его ключ задает позицию в чужом порядке
+    public static PageCursor decode(String cursor, PageList expected) {
+        PageCursor decoded;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Ожидается три части курсора");
+            }
+            decoded = new PageCursor(PageList.valueOf(parts[0]),
+                    parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]),
+                    Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Некорректный курсор: " + cursor);
+        }
+        if (decoded.list() != expected) {
+            throw new ValidationException("Курсор выдан для другого списка");
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.pagination;
+
+// Списки с курсором; каждый задает свой порядок, и курсор одного списка не подходит другому
+public enum PageList {
+    // (start, id) по убыванию
+    USER_BOOKINGS,
+    OWNER_BOOKINGS,
+    // id по возрастанию
+    OWNER_ITEMS,
+    ITEM_SEARCH,
+    // (created, id) по убыванию
+    ITEM_COMMENTS,
+    OTHER_REQUESTS
+}
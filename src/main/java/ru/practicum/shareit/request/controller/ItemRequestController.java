@@ -1,10 +1,14 @@
 package ru.practicum.shareit.request.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.pagination.PageList;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -37,15 +41,30 @@ public class ItemRequestController {
     public List<ItemRequestWithItemsDto> getAllItemRequests(
             @RequestHeader(USER_ID_HEADER) Long userId,
             @RequestParam(defaultValue = "0") @Min(value = 0, message = "Параметр 'from' не может быть отрицательным") Integer from,
-            @RequestParam(defaultValue = "10") @Min(value = 1, message = "Параметр 'size' должен быть положительным") Integer size) {
-        return itemRequestService.getAllItemRequests(userId, from, size);
+            @RequestParam(defaultValue = "10") @Min(value = 1, message = "Параметр 'size' должен быть положительным") Integer size,
+            @RequestParam(required = false) String cursor,
+            HttpServletResponse response) {
+        List<ItemRequestWithItemsDto> requests = itemRequestService.getAllItemRequests(userId, from, size, cursor);
+        // Курсор следующей страницы отдается, только если текущая страница заполнена
+        if (!requests.isEmpty() && requests.size() == size) {
+            ItemRequestWithItemsDto last = requests.get(requests.size() - 1);
+            response.setHeader(PageCursor.NEXT_CURSOR_HEADER,
+                    PageCursor.of(PageList.OTHER_REQUESTS, last.getCreated(), last.getId()).encode());
+        }
+        return requests;
     }
 
 
+    // Условный GET: при совпадении If-None-Match с ETag - 304 без сборки ответа
     @GetMapping("/{requestId}")
     public ItemRequestWithItemsDto getItemRequest(
             @RequestHeader(USER_ID_HEADER) Long userId,
-            @PathVariable Long requestId) {
+            @PathVariable Long requestId,
+            WebRequest webRequest) {
+        String etag = itemRequestService.getItemRequestETag(userId, requestId);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
         return itemRequestService.getItemRequest(userId, requestId);
     }
 }
\ No newline at end of file
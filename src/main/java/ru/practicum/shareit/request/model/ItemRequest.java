@@ -12,10 +12,14 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "item_requests")
+@Table(name = "item_requests", indexes = {
+        @Index(name = "idx_item_requests_requestor_created", columnList = "requestor_id, created_date"),
+        @Index(name = "idx_item_requests_created", columnList = "created_date, id")
+})
 public class ItemRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_requests_seq")
+    @SequenceGenerator(name = "item_requests_seq", sequenceName = "item_requests_seq", allocationSize = 50)
     Long id;
     @Column(name = "description", nullable = false, length = 1000)
     String description;
@@ -23,4 +27,8 @@ public class ItemRequest {
     Long requestorId;
     @Column(name = "created_date", nullable = false)
     LocalDateTime created;
+    // Версия для ETag; массовые UPDATE увеличивают ее явно
+    @Version
+    @Column(name = "version", nullable = false)
+    long version;
 }
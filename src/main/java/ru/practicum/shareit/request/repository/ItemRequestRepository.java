@@ -1,30 +1,46 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>, ItemRequestRepositoryCustom {
     List<ItemRequest> findByRequestorIdOrderByCreatedDesc(Long requestorId);
 
-    // Запросы других пользователей (с пагинацией)
-    @Query("SELECT ir FROM ItemRequest ir " +
-            "WHERE ir.requestorId != :userId " +
-            "ORDER BY ir.created DESC")
-    List<ItemRequest> findAllExceptUser(@Param("userId") Long userId, Pageable pageable);
-
     // Запросы других пользователей (без пагинации)
     @Query("SELECT ir FROM ItemRequest ir " +
             "WHERE ir.requestorId != :userId " +
             "ORDER BY ir.created DESC")
     List<ItemRequest> findAllExceptUser(@Param("userId") Long userId);
 
+    // Какие из переданных id запросов существуют (одним запросом для пакета вещей)
+    @Query("SELECT ir.id FROM ItemRequest ir WHERE ir.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Версия запроса для условного GET
+    @Query("SELECT ir.version FROM ItemRequest ir WHERE ir.id = :requestId")
+    Optional<Long> findVersionById(@Param("requestId") Long requestId);
+
+    // Вещи по запросу входят в его представление: их создание, изменение и удаление меняют версию
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ItemRequest ir SET ir.version = ir.version + 1 WHERE ir.id IN :requestIds")
+    int incrementVersions(@Param("requestIds") Collection<Long> requestIds);
+
+    // То же для всех запросов, на которые откликнулся владелец (перед каскадным удалением его вещей)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ItemRequest ir SET ir.version = ir.version + 1 " +
+            "WHERE ir.id IN (SELECT i.requestId FROM Item i WHERE i.userId = :ownerId)")
+    int incrementVersionsAnsweredBy(@Param("ownerId") Long ownerId);
+
     // Подсчет количества запросов пользователя
     long countByRequestorId(Long requestorId);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemRequestRepositoryCustom {
+
+    // Запросы других пользователей (с пагинацией): по убыванию (created, id), начиная после курсора
+    List<ItemRequest> findAllExceptUser(Long userId, LocalDateTime beforeCreated, Long beforeId, Pageable pageable);
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.request.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.pagination.RowQueries;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ItemRequestRepositoryImpl implements ItemRequestRepositoryCustom {
+    // Условие created <= :beforeCreated избыточно, но дает диапазон по индексу (created_date, id)
+    private static final String EXCEPT_USER_BEFORE = "SELECT ir FROM ItemRequest ir " +
+            "WHERE ir.requestorId != :userId " +
+            "AND ir.created <= :beforeCreated " +
+            "AND (ir.created < :beforeCreated OR (ir.created = :beforeCreated AND ir.id < :beforeId)) " +
+            "ORDER BY ir.created DESC, ir.id DESC";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<ItemRequest> findAllExceptUser(Long userId, LocalDateTime beforeCreated, Long beforeId,
+                                               Pageable pageable) {
+        return RowQueries.page(RowQueries.query(entityManager, EXCEPT_USER_BEFORE, ItemRequest.class)
+                .setParameter("userId", userId)
+                .setParameter("beforeCreated", beforeCreated)
+                .setParameter("beforeId", beforeId), pageable);
+    }
+}
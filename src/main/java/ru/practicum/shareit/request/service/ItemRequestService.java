@@ -10,7 +10,10 @@ public interface ItemRequestService {
 
     List<ItemRequestWithItemsDto> getUserItemRequests(Long userId);
 
-    List<ItemRequestWithItemsDto> getAllItemRequests(Long userId, Integer from, Integer size);
+    List<ItemRequestWithItemsDto> getAllItemRequests(Long userId, Integer from, Integer size, String cursor);
 
     ItemRequestWithItemsDto getItemRequest(Long userId, Long requestId);
+
+    // ETag запроса; null, если запроса нет
+    String getItemRequestETag(Long userId, Long requestId);
 }
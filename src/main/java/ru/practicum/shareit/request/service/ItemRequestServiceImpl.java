@@ -1,15 +1,16 @@
 package ru.practicum.shareit.request.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.MetricsConfig;
 import ru.practicum.shareit.exception.NotFoundException;
-import ru.practicum.shareit.item.dto.mapper.ItemMapper;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetPageRequest;
+import ru.practicum.shareit.pagination.PageList;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
 import ru.practicum.shareit.request.dto.mapper.ItemRequestMapper;
@@ -17,10 +18,13 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
@@ -28,7 +32,6 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final ItemService itemService;
     private final ItemRequestMapper itemRequestMapper;
-    private final ItemMapper itemMapper;
 
     @Override
     @Transactional
@@ -50,24 +53,19 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     public List<ItemRequestWithItemsDto> getUserItemRequests(Long userId) {
         log.info("Получение запросов пользователя ID={}", userId);
 
-        return itemRequestRepository.findByRequestorIdOrderByCreatedDesc(userId).stream()
-                .map(this::buildItemRequestWithItemsDto)
-                .collect(Collectors.toList());
+        return buildItemRequestsWithItems(itemRequestRepository.findByRequestorIdOrderByCreatedDesc(userId));
     }
 
     @Override
-    public List<ItemRequestWithItemsDto> getAllItemRequests(Long userId, Integer from, Integer size) {
+    public List<ItemRequestWithItemsDto> getAllItemRequests(Long userId, Integer from, Integer size, String cursor) {
         log.info("Получение всех запросов кроме пользователя ID={}, from={}, size={}", userId, from, size);
 
-        validatePaginationParams(from, size);
-
-        Pageable pageable = createPageable(from, size);
+        KeysetPageRequest page = KeysetPageRequest.of(PageList.OTHER_REQUESTS, from, size, cursor);
 
-        List<ItemRequest> requests = itemRequestRepository.findAllExceptUser(userId, pageable);
+        List<ItemRequest> requests = itemRequestRepository.findAllExceptUser(
+                userId, page.beforeTimestamp(), page.beforeId(), page.pageable());
 
-        return requests.stream()
-                .map(this::buildItemRequestWithItemsDto)
-                .collect(Collectors.toList());
+        return buildItemRequestsWithItems(requests);
     }
 
     @Override
@@ -78,37 +76,40 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 .orElseThrow(() -> new NotFoundException(
                         String.format("Запрос с ID=%d не найден", requestId)));
 
-        return buildItemRequestWithItemsDto(itemRequest);
+        List<ItemDto> items = itemService.getItemsByRequestId(requestId);
+
+        return buildItemRequestWithItemsDto(itemRequest, items);
     }
 
-    private ItemRequestWithItemsDto buildItemRequestWithItemsDto(ItemRequest itemRequest) {
-        List<Item> items = itemService.getItemsByRequestId(itemRequest.getId());
+    @Override
+    public String getItemRequestETag(Long userId, Long requestId) {
+        return itemRequestRepository.findVersionById(requestId)
+                .map(version -> String.format("r%d-%d", requestId, version))
+                .orElse(null);
+    }
+
+    // Вещи для всех запросов страницы загружаются одним запросом и группируются в памяти
+    private List<ItemRequestWithItemsDto> buildItemRequestsWithItems(List<ItemRequest> requests) {
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<ItemDto>> itemsByRequest = itemService.getItemsByRequestIds(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+
+        return requests.stream()
+                .map(request -> buildItemRequestWithItemsDto(request,
+                        itemsByRequest.getOrDefault(request.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
 
+    private ItemRequestWithItemsDto buildItemRequestWithItemsDto(ItemRequest itemRequest, List<ItemDto> items) {
         return ItemRequestWithItemsDto.builder()
                 .id(itemRequest.getId())
                 .description(itemRequest.getDescription())
                 .requestorId(itemRequest.getRequestorId())
                 .created(itemRequest.getCreated())
-                .items(items.stream()
-                        .map(itemMapper::mapToDto)
-                        .collect(Collectors.toList()))
+                .items(items)
                 .build();
     }
-
-    private void validatePaginationParams(Integer from, Integer size) {
-        if (from == null || size == null) {
-            throw new IllegalArgumentException("Параметры пагинации не могут быть null");
-        }
-        if (from < 0) {
-            throw new IllegalArgumentException("Параметр 'from' не может быть отрицательным");
-        }
-        if (size <= 0) {
-            throw new IllegalArgumentException("Параметр 'size' должен быть положительным");
-        }
-    }
-
-    private Pageable createPageable(Integer from, Integer size) {
-        int page = from / size;
-        return PageRequest.of(page, size);
-    }
 }
\ No newline at end of file
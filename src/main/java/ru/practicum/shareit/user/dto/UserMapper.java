@@ -2,6 +2,7 @@ package ru.practicum.shareit.user.dto;
 
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserSnapshot;
 
 @Component
 public class UserMapper {
@@ -20,4 +21,12 @@ public class UserMapper {
                 .email(user.getEmail())
                 .build();
     }
+
+    public UserDto mapToDto(UserSnapshot user) {
+        return UserDto.builder()
+                .id(user.id())
+                .name(user.name())
+                .email(user.email())
+                .build();
+    }
 }
@@ -13,7 +13,8 @@ import lombok.experimental.FieldDefaults;
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     Long id;
 
     @Column(name = "name", nullable = false)
@@ -21,4 +22,9 @@ public class User {
 
     @Column(name = "email", nullable = false, unique = true)
     String email;
+
+    // Версия для ETag; массовые UPDATE увеличивают ее явно
+    @Version
+    @Column(name = "version", nullable = false)
+    long version;
 }
@@ -0,0 +1,5 @@
+package ru.practicum.shareit.user.model;
+
+// Неизменяемая копия строки пользователя для кеша; версия решает, какая копия новее
+public record UserSnapshot(Long id, String name, String email, long version) {
+}
@@ -5,12 +5,18 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserSnapshot;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    // Копия строки для UserCache, без сущности в контексте персистентности
+    @Query("SELECT new ru.practicum.shareit.user.model.UserSnapshot(u.id, u.name, u.email, u.version) " +
+            "FROM User u WHERE u.id = :userId")
+    Optional<UserSnapshot> findSnapshotById(@Param("userId") Long userId);
+
     // Поиск пользователя по email (точное совпадение)
     Optional<User> findByEmail(String email);
 
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.user.repository;
+
+public interface UserRepositoryCustom {
+
+    // Обновление пользователя одним UPDATE: в запрос попадают только переданные (не null) поля.
+    // Уникальность email проверяет ограничение в БД
+    int updateFields(Long userId, String name, String email);
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.user.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.user.model.User;
+
+@RequiredArgsConstructor
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    private final EntityManager entityManager;
+
+    @Override
+    public int updateFields(Long userId, String name, String email) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = cb.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+        if (name != null) {
+            update.set(user.<String>get("name"), name);
+        }
+        if (email != null) {
+            update.set(user.<String>get("email"), email);
+        }
+        // Массовый UPDATE не увеличивает @Version сам
+        update.set(user.<Long>get("version"), cb.sum(user.<Long>get("version"), 1L));
+        update.where(cb.equal(user.get("id"), userId));
+
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+}
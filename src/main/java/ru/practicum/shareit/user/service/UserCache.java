@@ -0,0 +1,79 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.user.model.UserSnapshot;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Optional;
+
+/**
+ * Кеш пользователей по id поверх Caffeine-кеша "users" (метрики cache.* в actuator).
+ * Хранит неизменяемые UserSnapshot, поэтому вызывающие не делят изменяемую сущность.
+ * Запись с меньшей версией не заменяет более новую: чтение, загрузившее строку до коммита
+ * изменения, не вернет в кеш старую копию после него. Изменение после коммита кладет в кеш
+ * новую копию, удаление - отметку с максимальной версией, которая живет до истечения TTL.
+ */
+@Component
+public class UserCache {
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final UserRepository userRepository;
+    private final Cache<Object, Object> cache;
+
+    public UserCache(UserRepository userRepository, CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.cache = ((CaffeineCache) cacheManager.getCache(CacheConfig.USERS_CACHE)).getNativeCache();
+    }
+
+    public Optional<UserSnapshot> get(Long userId) {
+        UserSnapshot cached = (UserSnapshot) cache.getIfPresent(userId);
+        if (cached != null) {
+            return cached.version() == DELETED ? Optional.empty() : Optional.of(cached);
+        }
+        Optional<UserSnapshot> loaded = userRepository.findSnapshotById(userId);
+        // Транзакция записи может видеть свои незакоммиченные изменения: их в кеш не кладем
+        if (loaded.isPresent() && !inReadWriteTransaction()) {
+            putIfNewer(loaded.get());
+        }
+        return loaded;
+    }
+
+    // Копия строки, прочитанная после изменения в той же транзакции
+    public void updated(UserSnapshot snapshot) {
+        afterCommit(() -> putIfNewer(snapshot));
+    }
+
+    public void deleted(Long userId) {
+        afterCommit(() -> cache.put(userId, new UserSnapshot(userId, null, null, DELETED)));
+    }
+
+    private void putIfNewer(UserSnapshot snapshot) {
+        cache.asMap().merge(snapshot.id(), snapshot,
+                (current, loaded) -> ((UserSnapshot) current).version() >= ((UserSnapshot) loaded).version()
+                        ? current : loaded);
+    }
+
+    private static boolean inReadWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,7 +1,7 @@
 package ru.practicum.shareit.user.service;
 
 import ru.practicum.shareit.user.dto.UserDto;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserSnapshot;
 
 import java.util.List;
 
@@ -16,5 +16,6 @@ public interface UserService {
 
     void deleteUser(Long userId);
 
-    User getUserModelById(Long bookerId);
+    // Пользователь из кеша; NotFoundException, если его нет
+    UserSnapshot getUserSnapshotById(Long userId);
 }
@@ -1,26 +1,47 @@
 package ru.practicum.shareit.user.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.config.MetricsConfig;
 import ru.practicum.shareit.exception.DuplicateEmailException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.outbox.model.DomainEventType;
+import ru.practicum.shareit.outbox.service.DomainEventPublisher;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserSnapshot;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final UserMapper userMapper;
+    private final DomainEventPublisher domainEventPublisher;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final ItemBookingSummaryService itemBookingSummaryService;
 
     @Override
     public List<UserDto> getAllUsers() {
@@ -35,17 +56,12 @@ public class UserServiceImpl implements UserService {
     public UserDto getUserById(Long userId) {
         log.info("Получение пользователя с ID={}", userId);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException(String.format("User с Id=%d не найден", userId)));
-
-        return userMapper.mapToDto(user);
+        return userMapper.mapToDto(getUserSnapshotById(userId));
     }
 
     @Override
-    public User getUserModelById(Long userId) {
-        log.info("Получение модели пользователя с ID={}", userId);
-
-        return userRepository.findById(userId)
+    public UserSnapshot getUserSnapshotById(Long userId) {
+        return userCache.get(userId)
                 .orElseThrow(() -> new NotFoundException(String.format("User с Id=%d не найден", userId)));
     }
 
@@ -73,26 +89,41 @@ public class UserServiceImpl implements UserService {
     public UserDto updateUser(Long userId, UserDto userDto) {
         log.info("Обновление пользователя с ID={}", userId);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException(
-                        String.format("Пользователь с ID=%d не найден", userId)));
+        String newName = userDto.getName();
+        String newEmail = userDto.getEmail();
 
-        if (userDto.getEmail() != null && !userDto.getEmail().equals(user.getEmail())) {
-            if (userRepository.existsByEmailAndIdNot(userDto.getEmail(), userId)) {
-                throw new DuplicateEmailException(
-                        String.format("Email %s уже используется", userDto.getEmail()));
-            }
-            user.setEmail(userDto.getEmail());
+        // Поля не сравниваются с копией из кеша: она может отставать от строки в БД,
+        // и пропущенное "неизмененное" поле оставило бы в строке чужое значение
+        if (newName == null && newEmail == null) {
+            return userMapper.mapToDto(getUserSnapshotById(userId));
         }
 
-        if (userDto.getName() != null) {
-            user.setName(userDto.getName());
+        int updated;
+        try {
+            updated = userRepository.updateFields(userId, newName, newEmail);
+        } catch (DataIntegrityViolationException e) {
+            // Уникальность email обеспечивает ограничение в БД, без предварительной проверки
+            throw new DuplicateEmailException(String.format("Email %s уже используется", newEmail));
+        }
+        if (updated == 0) {
+            throw new NotFoundException(String.format("Пользователь с ID=%d не найден", userId));
+        }
+        if (newName != null) {
+            // Имя автора выводится в комментариях: ETag прокомментированных вещей должен измениться
+            itemRepository.incrementVersionsCommentedBy(userId);
         }
 
-        User updatedUser = userRepository.save(user);
+        // Ответ и кеш - по строке после UPDATE: непереданные поля могли измениться в обход кеша.
+        // В кеш копия попадает после коммита
+        UserSnapshot user = userRepository.findSnapshotById(userId)
+                .orElseThrow(() -> new NotFoundException(
+                        String.format("Пользователь с ID=%d не найден", userId)));
+        userCache.updated(user);
+
+        UserDto updatedUser = userMapper.mapToDto(user);
         log.info("Пользователь с ID={} обновлен", userId);
 
-        return userMapper.mapToDto(updatedUser);
+        return updatedUser;
     }
 
     @Override
@@ -105,7 +136,19 @@ public class UserServiceImpl implements UserService {
                     String.format("Пользователь с ID=%d не найден", userId));
         }
 
+        // Бронирования пользователя удаляются каскадно в БД, их интервалы нужно убрать из индекса
+        bookingRepository.findItemIdsWithApprovedBookingsOf(userId, LocalDateTime.now())
+                .forEach(itemAvailabilityIndex::evict);
+        itemBookingSummaryService.bookerDeleted(userId);
+        // Комментарии и вещи пользователя тоже удаляются каскадно: версии вещей с его комментариями
+        // и запросов с его вещами поднимаются до удаления, пока связи еще видны
+        itemRepository.incrementVersionsCommentedBy(userId);
+        itemRequestRepository.incrementVersionsAnsweredBy(userId);
+
         userRepository.deleteById(userId);
+        userCache.deleted(userId);
+        // Вещи пользователя удаляются каскадно в БД, проекции узнают об этом из события
+        domainEventPublisher.publish(DomainEventType.USER_DELETED, userId, Map.of());
         log.info("Пользователь с ID={} удален", userId);
     }
 }
\ No newline at end of file
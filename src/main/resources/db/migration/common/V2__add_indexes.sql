@@ -0,0 +1,23 @@
+-- Бронирования пользователя: booker_id [+ status], сортировка и курсор по (start_date, id)
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date, id);
+
+-- Бронирования вещей владельца и следующее бронирование вещи: item_id + start_date
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date, id);
+
+-- Последнее бронирование вещи: item_id + end_date
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings (item_id, end_date);
+
+-- Пересечения и проверка аренды перед комментарием: item_id + status + end_date
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_end ON bookings (item_id, status, end_date);
+
+-- Вещи владельца с курсором по id и вещи по запросу
+CREATE INDEX IF NOT EXISTS idx_items_user_id ON items (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+
+-- Комментарии вещи по дате
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created);
+
+-- Свои запросы по дате и чужие запросы с курсором по (created_date, id)
+CREATE INDEX IF NOT EXISTS idx_item_requests_requestor_created ON item_requests (requestor_id, created_date);
+CREATE INDEX IF NOT EXISTS idx_item_requests_created ON item_requests (created_date, id);
@@ -0,0 +1,7 @@
+-- Версии агрегатов для ETag: увеличиваются каждой записью, меняющей представление ресурса.
+-- Вещь - при изменении полей и новом комментарии, бронирование - при смене статуса,
+-- запрос - при создании, изменении и удалении вещей по нему, пользователь - при изменении.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE item_requests ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,22 @@
+-- Сводка по вещи для владельца: последнее и следующее бронирование и число комментариев.
+-- refresh_at - ближайший момент, когда сводка устареет сама по себе (начало следующего
+-- или окончание текущего бронирования); строки с refresh_at <= now пересчитывает фоновое задание,
+-- а до пересчета чтение идет по живым таблицам.
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+    item_id BIGINT PRIMARY KEY,
+    last_booking_id BIGINT,
+    last_booker_id BIGINT,
+    next_booking_id BIGINT,
+    next_booker_id BIGINT,
+    next_start TIMESTAMP WITHOUT TIME ZONE,
+    comments_count BIGINT NOT NULL DEFAULT 0,
+    refresh_at TIMESTAMP WITHOUT TIME ZONE,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT fk_item_booking_summary_item FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_item_booking_summary_refresh ON item_booking_summary (refresh_at);
+
+-- Существующие вещи сразу помечаются к пересчету
+INSERT INTO item_booking_summary (item_id, refresh_at)
+SELECT id, TIMESTAMP '1970-01-01 00:00:00' FROM items;
@@ -0,0 +1,13 @@
+-- Transactional outbox: доменные события пишутся в транзакции изменения
+-- и удаляются диспетчером после доставки проекциям. Порядок доставки - по id.
+-- Пул id по 500 (allocationSize): событие добавляет почти каждая запись
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq INCREMENT BY 500;
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT PRIMARY KEY,
+    aggregate_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload VARCHAR(2000) NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
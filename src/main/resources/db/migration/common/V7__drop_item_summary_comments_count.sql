@@ -0,0 +1,3 @@
+-- Число комментариев отдает оконная выборка последних комментариев в том же запросе,
+-- поэтому копия в сводке не читалась и только расходилась с таблицей comments.
+ALTER TABLE item_booking_summary DROP COLUMN IF EXISTS comments_count;
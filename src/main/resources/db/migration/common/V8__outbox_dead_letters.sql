@@ -0,0 +1,17 @@
+-- Неудачные попытки доставки события; после shareit.outbox.max-attempts событие
+-- переносится в outbox_dead_letters, чтобы не останавливать очередь
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
+
+-- id совпадает с id события в outbox_events
+CREATE TABLE IF NOT EXISTS outbox_dead_letters (
+    id BIGINT PRIMARY KEY,
+    aggregate_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload VARCHAR(2000) NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    attempts INT NOT NULL,
+    handler VARCHAR(64) NOT NULL,
+    error VARCHAR(1000),
+    failed_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
@@ -0,0 +1,24 @@
+-- Проекции outbox (поисковый индекс вещей) живут в памяти каждого узла, поэтому событие
+-- доставляется каждому узлу, а не первому опросившему. Узел отмечает доставленные события
+-- в outbox_deliveries; событие удаляется, когда его доставили все живые узлы outbox_nodes
+CREATE TABLE IF NOT EXISTS outbox_nodes (
+    node_id VARCHAR(64) PRIMARY KEY,
+    started_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    heartbeat_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS outbox_deliveries (
+    node_id VARCHAR(64) NOT NULL,
+    event_id BIGINT NOT NULL,
+    delivered_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    PRIMARY KEY (node_id, event_id)
+);
+
+-- Очистка ищет отметки по событию
+CREATE INDEX IF NOT EXISTS idx_outbox_deliveries_event ON outbox_deliveries (event_id);
+
+-- Неудачные попытки считает каждый узел для своих проекций
+ALTER TABLE outbox_events DROP COLUMN IF EXISTS attempts;
+
+-- Узел, на котором доставка остановилась; у записей до этой миграции не заполнен
+ALTER TABLE outbox_dead_letters ADD COLUMN IF NOT EXISTS node_id VARCHAR(64);
@@ -0,0 +1,29 @@
+-- Пулы идентификаторов: Hibernate берет из последовательности по 50 id за раз (allocationSize = 50),
+-- поэтому вставки можно отправлять пакетами. Значение последовательности - верхняя граница выданного пула,
+-- так что следующий пул начинается сразу после существующих строк: MAX(id) + 50.
+-- IDENTITY снимается, вставки без id в обход Hibernate берут значение из той же последовательности.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM users);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT NEXT VALUE FOR users_seq;
+
+CREATE SEQUENCE IF NOT EXISTS items_seq INCREMENT BY 50;
+ALTER SEQUENCE items_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM items);
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN id SET DEFAULT NEXT VALUE FOR items_seq;
+
+CREATE SEQUENCE IF NOT EXISTS bookings_seq INCREMENT BY 50;
+ALTER SEQUENCE bookings_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM bookings);
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE bookings ALTER COLUMN id SET DEFAULT NEXT VALUE FOR bookings_seq;
+
+CREATE SEQUENCE IF NOT EXISTS item_requests_seq INCREMENT BY 50;
+ALTER SEQUENCE item_requests_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM item_requests);
+ALTER TABLE item_requests ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE item_requests ALTER COLUMN id SET DEFAULT NEXT VALUE FOR item_requests_seq;
+
+CREATE SEQUENCE IF NOT EXISTS comments_seq INCREMENT BY 50;
+ALTER SEQUENCE comments_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM comments);
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE comments ALTER COLUMN id SET DEFAULT NEXT VALUE FOR comments_seq;
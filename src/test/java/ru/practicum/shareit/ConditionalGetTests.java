@@ -0,0 +1,225 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.monitoring.SqlStatementBudget;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Условный GET карточек вещи, бронирования и запроса: неизменный ресурс стоит
+ * одного запроса версии и отдается как 304, любая запись, меняющая ответ, меняет ETag.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTests {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private User owner;
+    private User booker;
+    private ItemRequest request;
+    private Item item;
+    private Booking waiting;
+
+    @BeforeEach
+    void seed() {
+        long suffix = System.nanoTime();
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@mail.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@mail.ru").build());
+        LocalDateTime now = LocalDateTime.now();
+
+        request = itemRequestRepository.save(ItemRequest.builder()
+                .description("нужна дрель")
+                .requestorId(booker.getId())
+                .created(now)
+                .build());
+        item = itemRepository.save(Item.builder()
+                .userId(owner.getId())
+                .name("дрель")
+                .description("ударная")
+                .available(true)
+                .requestId(request.getId())
+                .build());
+        bookingRepository.save(Booking.builder()
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .start(now.minusDays(3))
+                .end(now.minusDays(2))
+                .status(BookingStatus.APPROVED)
+                .build());
+        waiting = bookingRepository.save(Booking.builder()
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .status(BookingStatus.WAITING)
+                .build());
+    }
+
+    @Test
+    void unchangedItemIsNotModified() throws Exception {
+        String etag = etag("/items/" + item.getId(), booker);
+
+        assertNotModified("/items/" + item.getId(), booker, etag);
+        assertNotModified("/items/" + item.getId(), owner, etag("/items/" + item.getId(), owner));
+    }
+
+    @Test
+    void itemETagDependsOnViewer() throws Exception {
+        assertNotEquals(etag("/items/" + item.getId(), owner), etag("/items/" + item.getId(), booker));
+    }
+
+    @Test
+    void commentAndUpdateChangeItemETag() throws Exception {
+        String initial = etag("/items/" + item.getId(), booker);
+
+        mockMvc.perform(post("/items/" + item.getId() + "/comment")
+                .header(USER_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"text\":\"отличная дрель\"}"));
+        String commented = etag("/items/" + item.getId(), booker);
+        assertNotEquals(initial, commented);
+
+        mockMvc.perform(patch("/items/" + item.getId())
+                .header(USER_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"перфоратор\"}"));
+        assertNotEquals(commented, etag("/items/" + item.getId(), booker));
+    }
+
+    @Test
+    void authorRenameChangesItemETag() throws Exception {
+        mockMvc.perform(post("/items/" + item.getId() + "/comment")
+                .header(USER_HEADER, booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"text\":\"отличная дрель\"}"));
+        String before = etag("/items/" + item.getId(), owner);
+
+        mockMvc.perform(patch("/users/" + booker.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"новое имя\"}"));
+
+        assertNotEquals(before, etag("/items/" + item.getId(), owner));
+    }
+
+    @Test
+    void newNextBookingChangesOwnerItemETag() throws Exception {
+        String before = etag("/items/" + item.getId(), owner);
+
+        bookingRepository.save(Booking.builder()
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .start(LocalDateTime.now().plusHours(1))
+                .end(LocalDateTime.now().plusHours(2))
+                .status(BookingStatus.WAITING)
+                .build());
+
+        assertNotEquals(before, etag("/items/" + item.getId(), owner));
+    }
+
+    @Test
+    void bookingIsNotModifiedUntilDecision() throws Exception {
+        String path = "/bookings/" + waiting.getId();
+        String etag = etag(path, booker);
+        assertNotModified(path, booker, etag);
+
+        mockMvc.perform(patch(path)
+                .header(USER_HEADER, owner.getId())
+                .param("approved", "true"));
+
+        assertNotEquals(etag, etag(path, booker));
+    }
+
+    @Test
+    void strangerGetsNoNotModifiedForBooking() throws Exception {
+        User stranger = userRepository.save(User.builder()
+                .name("stranger")
+                .email("stranger" + System.nanoTime() + "@mail.ru")
+                .build());
+        String etag = etag("/bookings/" + waiting.getId(), booker);
+
+        MvcResult result = mockMvc.perform(get("/bookings/" + waiting.getId())
+                .header(USER_HEADER, stranger.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+
+        assertEquals(403, result.getResponse().getStatus());
+    }
+
+    @Test
+    void newItemForRequestChangesRequestETag() throws Exception {
+        String path = "/requests/" + request.getId();
+        String etag = etag(path, owner);
+        assertNotModified(path, owner, etag);
+
+        mockMvc.perform(post("/items")
+                .header(USER_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"шуруповерт\",\"description\":\"аккумуляторный\",\"available\":true,"
+                        + "\"requestId\":" + request.getId() + "}"));
+
+        assertNotEquals(etag, etag(path, owner));
+    }
+
+    @Test
+    void deletingAnsweringOwnerChangesRequestETag() throws Exception {
+        String path = "/requests/" + request.getId();
+        String etag = etag(path, booker);
+
+        assertEquals(200, mockMvc.perform(delete("/users/" + owner.getId())).andReturn().getResponse().getStatus());
+
+        assertNotEquals(etag, etag(path, booker));
+    }
+
+    private String etag(String path, User user) throws Exception {
+        MvcResult result = mockMvc.perform(get(path).header(USER_HEADER, user.getId())).andReturn();
+        assertEquals(200, result.getResponse().getStatus(), path);
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag, path);
+        return etag;
+    }
+
+    // 304 без тела и ровно один запрос к БД - чтение версии
+    private void assertNotModified(String path, User user, String etag) throws Exception {
+        MvcResult result = SqlStatementBudget.assertWithinBudget("GET " + path + " If-None-Match", 1,
+                () -> mockMvc.perform(get(path)
+                        .header(USER_HEADER, user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn());
+        assertEquals(304, result.getResponse().getStatus(), path);
+        assertEquals("", result.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,228 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.model.BookingFilterState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.monitoring.SqlStatementInspector;
+import ru.practicum.shareit.monitoring.SqlStatementStatistics;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Проверяет, что горячие запросы репозиториев используют индексы из миграций.
+ * Схема создается Flyway (профиль h2), данные заполняются напрямую через JDBC,
+ * затем SQL каждого запроса, перехваченный SqlStatementInspector, выполняется
+ * через EXPLAIN. Полный просмотр таблицы H2 помечает в плане как tableScan.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-plans;DB_CLOSE_DELAY=-1",
+        "spring.h2.console.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTests {
+    private static final int USERS = 200;
+    private static final int ITEMS_PER_USER = 5;
+    private static final int BOOKINGS_PER_ITEM = 10;
+    private static final int COMMENTS_PER_ITEM = 2;
+    private static final int REQUESTS_PER_USER = 3;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+    private static final PageRequest PAGE = PageRequest.of(0, 10);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @BeforeAll
+    void seed() {
+        int items = USERS * ITEMS_PER_USER;
+
+        List<Object[]> users = new ArrayList<>();
+        for (int u = 1; u <= USERS; u++) {
+            users.add(new Object[]{u, "user" + u, "user" + u + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", users);
+
+        List<Object[]> requests = new ArrayList<>();
+        for (int r = 1; r <= USERS * REQUESTS_PER_USER; r++) {
+            requests.add(new Object[]{r, "request" + r, (r % USERS) + 1, Timestamp.valueOf(NOW.minusHours(r))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO item_requests (id, description, requestor_id, created_date) " +
+                "VALUES (?, ?, ?, ?)", requests);
+
+        List<Object[]> itemRows = new ArrayList<>();
+        for (int i = 1; i <= items; i++) {
+            Object requestId = i % 4 == 0 ? (i % requests.size()) + 1 : null;
+            itemRows.add(new Object[]{i, ((i - 1) / ITEMS_PER_USER) + 1, "item" + i, "description" + i, true,
+                    requestId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, user_id, name, description, is_available, request_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", itemRows);
+
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        BookingStatus[] statuses = BookingStatus.values();
+        for (int i = 1; i <= items; i++) {
+            for (int b = 0; b < BOOKINGS_PER_ITEM; b++) {
+                LocalDateTime start = NOW.plusDays((b - BOOKINGS_PER_ITEM / 2) * 3L);
+                bookings.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(2)), i,
+                        ((i + b) % USERS) + 1, statuses[b % statuses.length].name()});
+            }
+            for (int c = 0; c < COMMENTS_PER_ITEM; c++) {
+                comments.add(new Object[]{"comment", i, ((i + c) % USERS) + 1, Timestamp.valueOf(NOW.minusDays(c))});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) " +
+                "VALUES (?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.batchUpdate("INSERT INTO comments (text, item_id, author_id, created) VALUES (?, ?, ?, ?)",
+                comments);
+
+        // Обновляем статистику, чтобы оптимизатор видел реальную селективность
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void bookerBookingsUseIndexForEveryState() {
+        for (BookingFilterState state : BookingFilterState.values()) {
+            assertIndexed("bookings by booker, state " + state, () -> bookingRepository.findByBookerIdAndState(
+                    1L, state, NOW, NOW.plusYears(100), Long.MAX_VALUE, PAGE));
+        }
+    }
+
+    @Test
+    void ownerBookingsUseIndexForEveryState() {
+        for (BookingFilterState state : BookingFilterState.values()) {
+            assertIndexed("bookings by owner, state " + state, () -> bookingRepository.findByItemOwnerIdAndState(
+                    1L, state, NOW, NOW.plusYears(100), Long.MAX_VALUE, PAGE));
+        }
+    }
+
+    @Test
+    void itemBookingQueriesUseIndex() {
+        assertIndexed("last and next bookings", () -> bookingRepository.findLastAndNextBookings(
+                List.of(1L, 2L, 3L), NOW));
+        assertIndexed("approved bookings of item", () -> bookingRepository.findByItemIdAndStatusAndEndAfter(
+                1L, BookingStatus.APPROVED, NOW));
+        assertIndexed("overlapping bookings", () -> bookingRepository.findOverlappingApprovedBookings(
+                1L, NOW, NOW.plusDays(1)));
+        assertIndexed("booked before comment", () -> bookingRepository.hasUserBookedAndApproved(
+                1L, 1L, NOW));
+        assertIndexed("booking version", () -> bookingRepository.findVersionById(1L));
+    }
+
+    @Test
+    void itemQueriesUseIndex() {
+        assertIndexed("item by id", () -> itemRepository.findRowById(1L));
+        assertIndexed("items of owner", () -> itemRepository.findRowsByUserIdAfter(1L, 0L, PAGE));
+        assertIndexed("all items of owner", () -> itemRepository.findRowsByUserId(1L));
+        assertIndexed("items of request", () -> itemRepository.findRowsByRequestId(1L));
+        assertIndexed("items of requests", () -> itemRepository.findRowsByRequestIdIn(List.of(1L, 2L, 3L)));
+        assertIndexed("item version with last and next booking", () -> itemRepository.findVersionById(1L, NOW));
+    }
+
+    @Test
+    void commentQueriesUseIndex() {
+        assertIndexed("comments page of item", () -> commentRepository.findRowsByItemIdBefore(
+                1L, NOW.plusYears(100), Long.MAX_VALUE, PAGE));
+        assertIndexed("newest comments of items", () -> commentRepository.findNewestRowsByItemIdIn(
+                List.of(1L, 2L, 3L), 10));
+    }
+
+    @Test
+    void itemSummaryQueriesUseIndex() {
+        assertIndexed("summaries of items", () -> itemBookingSummaryRepository.findAllById(List.of(1L, 2L, 3L)));
+        assertIndexed("due summaries", () -> itemBookingSummaryRepository.findDueItemIds(NOW, PAGE));
+        assertIndexed("earliest booking ends", () -> bookingRepository.findEarliestEndsNotBefore(
+                List.of(1L, 2L, 3L), NOW));
+        assertIndexed("item ids page", () -> itemRepository.findIdsAfter(0L, PAGE));
+    }
+
+    @Test
+    void outboxPollUsesPrimaryKey() {
+        assertIndexed("undelivered outbox events", () -> outboxEventRepository.findUndelivered("node", PAGE));
+    }
+
+    @Test
+    void itemRequestQueriesUseIndex() {
+        assertIndexed("own requests", () -> itemRequestRepository.findByRequestorIdOrderByCreatedDesc(1L));
+        assertIndexed("requests of others", () -> itemRequestRepository.findAllExceptUser(
+                1L, NOW.plusYears(100), Long.MAX_VALUE, PAGE));
+        assertIndexed("request version", () -> itemRequestRepository.findVersionById(1L));
+    }
+
+    private void assertIndexed(String name, Runnable query) {
+        SqlStatementStatistics statistics = SqlStatementInspector.start();
+        try {
+            query.run();
+        } finally {
+            SqlStatementInspector.stop(statistics);
+        }
+        List<String> statements = statistics.statements();
+        assertFalse(statements.isEmpty(), name + ": запрос не выполнялся");
+
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertFalse(plan.contains("tableScan"),
+                    name + ": полный просмотр таблицы\nSQL: " + sql + "\nПлан:\n" + plan);
+        }
+    }
+
+    // Параметры не влияют на выбор индекса в H2, поэтому все связываются как NULL
+    private String explain(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setNull(i, Types.NULL);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось получить план запроса: " + sql, e);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemLockManager;
+import ru.practicum.shareit.exception.BookingValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Одновременное подтверждение пересекающихся бронирований одной вещи:
+ * проверка и запись идут под блокировкой вещи, поэтому подтверждается ровно одно.
+ * Создание бронирования той же вещи ждет блокировку, ожидание попадает в метрику.
+ */
+@SpringBootTest
+class BookingConcurrencyTests {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemLockManager itemLockManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private List<Long> bookingIds;
+
+    @BeforeEach
+    void seed() {
+        long suffix = System.nanoTime();
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@mail.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@mail.ru").build());
+        item = itemRepository.save(Item.builder()
+                .userId(owner.getId())
+                .name("дрель")
+                .description("ударная")
+                .available(true)
+                .build());
+
+        // Все бронирования пересекаются по первым суткам
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookingIds.add(bookingRepository.save(Booking.builder()
+                    .itemId(item.getId())
+                    .bookerId(booker.getId())
+                    .start(start.plusHours(i))
+                    .end(start.plusDays(1).plusHours(i))
+                    .status(BookingStatus.WAITING)
+                    .build()).getId());
+        }
+    }
+
+    @Test
+    void concurrentApprovalsOfOverlappingBookingsApproveOne() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (Long bookingId : bookingIds) {
+                results.add(executor.submit(() -> {
+                    ready.await();
+                    try {
+                        bookingService.updateBookingStatus(owner.getId(), bookingId, true);
+                        return true;
+                    } catch (BookingValidationException e) {
+                        return false;
+                    }
+                }));
+            }
+            ready.countDown();
+
+            int approved = 0;
+            for (Future<Boolean> result : results) {
+                approved += result.get() ? 1 : 0;
+            }
+            assertEquals(1, approved);
+            assertEquals(1, bookingRepository.findByItemIdAndStatusAndEndAfter(
+                    item.getId(), BookingStatus.APPROVED, LocalDateTime.now()).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void batchWithOverlappingApprovalsIsRejected() {
+        List<BookingDecisionDto> decisions = List.of(
+                BookingDecisionDto.builder().bookingId(bookingIds.get(0)).approved(true).build(),
+                BookingDecisionDto.builder().bookingId(bookingIds.get(1)).approved(true).build());
+
+        assertThrows(BookingValidationException.class,
+                () -> bookingService.updateBookingStatuses(owner.getId(), decisions));
+        assertEquals(0, bookingRepository.findByItemIdAndStatusAndEndAfter(
+                item.getId(), BookingStatus.APPROVED, LocalDateTime.now()).size());
+    }
+
+    @Test
+    void concurrentCreationWaitsForItemLock() throws Exception {
+        double contendedBefore = contendedCount();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // Первая транзакция держит блокировку вещи, как createBooking между проверкой и записью
+            Future<?> holder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                itemLockManager.lock(item.getId());
+                locked.countDown();
+                awaitQuietly(release);
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            LocalDateTime start = LocalDateTime.now().plusDays(10);
+            Future<BookingResponseDto> creation = executor.submit(() -> bookingService.createBooking(
+                    booker.getId(), BookingRequestDto.builder()
+                            .itemId(item.getId())
+                            .start(start)
+                            .end(start.plusDays(1))
+                            .build()));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (contendedCount() == contendedBefore && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(contendedBefore + 1, contendedCount());
+            assertFalse(creation.isDone());
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            assertNotNull(creation.get(5, TimeUnit.SECONDS).getId());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private double contendedCount() {
+        return meterRegistry.counter("shareit.item.lock.contended", "backend", "local").count();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.pagination.PageList;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Постраничный обход бронирований по X-Next-Cursor: записи с одинаковым началом
+ * различаются по id и не теряются и не повторяются на границе страниц. Курсор другого списка
+ * и неверные from/size дают 400.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingCursorPaginationTests {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final int BOOKINGS = 5;
+    private static final int PAGE_SIZE = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User booker;
+    private List<Long> expectedIds;
+
+    @BeforeEach
+    void seed() {
+        long suffix = System.nanoTime();
+        User owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@mail.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@mail.ru").build());
+        Item item = itemRepository.save(Item.builder()
+                .userId(owner.getId())
+                .name("дрель")
+                .description("ударная")
+                .available(true)
+                .build());
+
+        // Все бронирования начинаются в один момент: порядок задает только id
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        expectedIds = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            expectedIds.add(bookingRepository.save(Booking.builder()
+                    .itemId(item.getId())
+                    .bookerId(booker.getId())
+                    .start(start)
+                    .end(start.plusDays(1))
+                    .status(BookingStatus.WAITING)
+                    .build()).getId());
+        }
+        expectedIds.sort(Comparator.reverseOrder());
+    }
+
+    @Test
+    void cursorWalksThroughTiesWithoutGapsOrRepeats() throws Exception {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = bookings().param("size", String.valueOf(PAGE_SIZE));
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+            assertEquals(200, response.getStatus());
+            seen.addAll(idsOf(response));
+            cursor = response.getHeader(PageCursor.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expectedIds, seen);
+        assertEquals((BOOKINGS + PAGE_SIZE - 1) / PAGE_SIZE, pages);
+    }
+
+    @Test
+    void withoutCursorPageStartsAtFrom() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(bookings()
+                        .param("from", "1")
+                        .param("size", String.valueOf(PAGE_SIZE)))
+                .andReturn().getResponse();
+
+        assertEquals(expectedIds.subList(1, 1 + PAGE_SIZE), idsOf(response));
+    }
+
+    @Test
+    void cursorTakesPrecedenceOverFrom() throws Exception {
+        String cursor = mockMvc.perform(bookings().param("size", String.valueOf(PAGE_SIZE)))
+                .andReturn().getResponse().getHeader(PageCursor.NEXT_CURSOR_HEADER);
+
+        MockHttpServletResponse response = mockMvc.perform(bookings()
+                        .param("from", "3")
+                        .param("size", String.valueOf(PAGE_SIZE))
+                        .param("cursor", cursor))
+                .andReturn().getResponse();
+
+        assertEquals(expectedIds.subList(PAGE_SIZE, 2 * PAGE_SIZE), idsOf(response));
+    }
+
+    @Test
+    void lastIncompletePageHasNoCursor() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(bookings().param("size", String.valueOf(BOOKINGS + 1)))
+                .andReturn().getResponse();
+
+        assertEquals(expectedIds, idsOf(response));
+        assertNull(response.getHeader(PageCursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        for (String cursor : List.of("не курсор", "bm90LWEtY3Vyc29y", PageCursor.of(PageList.USER_BOOKINGS, 1L).encode())) {
+            assertEquals(400, mockMvc.perform(bookings().param("cursor", cursor))
+                    .andReturn().getResponse().getStatus(), "курсор '" + cursor + "'");
+        }
+    }
+
+    @Test
+    void cursorOfAnotherListIsBadRequest() throws Exception {
+        String cursor = mockMvc.perform(bookings().param("size", String.valueOf(PAGE_SIZE)))
+                .andReturn().getResponse().getHeader(PageCursor.NEXT_CURSOR_HEADER);
+        assertEquals(200, mockMvc.perform(bookings().param("cursor", cursor)).andReturn().getResponse().getStatus());
+
+        for (String foreign : List.of(
+                PageCursor.of(PageList.OWNER_BOOKINGS, LocalDateTime.now(), 1L).encode(),
+                PageCursor.of(PageList.ITEM_COMMENTS, LocalDateTime.now(), 1L).encode())) {
+            assertEquals(400, mockMvc.perform(bookings().param("cursor", foreign))
+                    .andReturn().getResponse().getStatus(), "курсор " + foreign);
+        }
+        assertEquals(400, mockMvc.perform(get("/items/search").param("text", "дрель").param("cursor", cursor))
+                .andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void invalidPagingIsBadRequest() throws Exception {
+        for (String[] paging : List.of(new String[]{"-1", "10"}, new String[]{"0", "0"}, new String[]{"0", "-5"})) {
+            assertEquals(400, mockMvc.perform(bookings().param("from", paging[0]).param("size", paging[1]))
+                    .andReturn().getResponse().getStatus(), "from=" + paging[0] + ", size=" + paging[1]);
+            assertEquals(400, mockMvc.perform(get("/requests/all").header(USER_HEADER, booker.getId())
+                            .param("from", paging[0]).param("size", paging[1]))
+                    .andReturn().getResponse().getStatus(), "/requests/all from=" + paging[0] + ", size=" + paging[1]);
+        }
+    }
+
+    private MockHttpServletRequestBuilder bookings() {
+        return get("/bookings").header(USER_HEADER, booker.getId());
+    }
+
+    private List<Long> idsOf(MockHttpServletResponse response) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode booking : objectMapper.readTree(response.getContentAsString(StandardCharsets.UTF_8))) {
+            ids.add(booking.get("id").asLong());
+        }
+        return ids;
+    }
+}
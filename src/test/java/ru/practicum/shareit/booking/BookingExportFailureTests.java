@@ -0,0 +1,102 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.model.BookingExportRow;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Ошибка БД посреди выгрузки: в уже начатый ответ 200 не дописывается JSON ErrorHandler,
+ * выгрузка заканчивается строкой ошибки после переданных строк.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingExportFailureTests {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final int BOOKINGS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @SpyBean
+    private BookingRepository bookingRepository;
+
+    private User booker;
+
+    @BeforeEach
+    void seed() {
+        long suffix = System.nanoTime();
+        User owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@mail.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@mail.ru").build());
+        Item item = itemRepository.save(Item.builder()
+                .userId(owner.getId())
+                .name("дрель")
+                .description("ударная")
+                .available(true)
+                .build());
+
+        // Несколько строк выгрузки читаются, затем чтение обрывается ошибкой БД
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        doAnswer(invocation -> Stream.concat(
+                LongStream.rangeClosed(1, BOOKINGS).mapToObj(id -> new BookingExportRow(id,
+                        start.plusDays(id), start.plusDays(id + 1), BookingStatus.WAITING,
+                        item.getId(), item.getName(), owner.getId(), booker.getId(), booker.getName())),
+                Stream.<BookingExportRow>generate(() -> {
+                    throw new DataAccessResourceFailureException("соединение с БД потеряно");
+                }))).when(bookingRepository).streamByBookerId(anyLong());
+    }
+
+    @Test
+    void ndjsonFailureEndsWithErrorLine() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/bookings/export")
+                        .header(USER_HEADER, booker.getId()))
+                .andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        List<String> lines = response.getContentAsString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(BOOKINGS + 1, lines.size());
+        assertTrue(lines.get(BOOKINGS).startsWith("{\"error\":\"Выгрузка прервана"));
+        assertFalse(response.getContentAsString(StandardCharsets.UTF_8).contains("Внутренняя ошибка сервера"));
+    }
+
+    @Test
+    void csvFailureEndsWithErrorLine() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/bookings/export")
+                        .header(USER_HEADER, booker.getId())
+                        .param("format", "csv"))
+                .andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        List<String> lines = response.getContentAsString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(BOOKINGS + 2, lines.size());
+        assertTrue(lines.get(BOOKINGS + 1).startsWith("#error,\"Выгрузка прервана"));
+    }
+}
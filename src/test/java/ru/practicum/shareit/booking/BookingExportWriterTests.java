@@ -0,0 +1,144 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import ru.practicum.shareit.booking.model.BookingExportFormat;
+import ru.practicum.shareit.booking.model.BookingExportRow;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingExportWriter;
+import ru.practicum.shareit.exception.ExportAbortedException;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Выгрузка пишет строки одним генератором и сбрасывает поток ответа один раз в конце.
+ * Ошибка чтения или превышение времени завершают выгрузку строкой ошибки после целых строк.
+ */
+class BookingExportWriterTests {
+    private static final int ROWS = 50;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final BookingExportWriter exportWriter = new BookingExportWriter(objectMapper, 300);
+
+    @Test
+    void ndjsonHasObjectPerLineAndSingleFlush() throws Exception {
+        CountingWriter writer = new CountingWriter();
+
+        assertEquals(ROWS, exportWriter.write(rows(), BookingExportFormat.NDJSON, writer));
+
+        List<String> lines = writer.toString().lines().toList();
+        assertEquals(ROWS, lines.size());
+        for (int i = 0; i < ROWS; i++) {
+            JsonNode row = objectMapper.readTree(lines.get(i));
+            assertEquals(i + 1, row.get("id").asLong());
+            assertEquals("вещь \"" + (i + 1) + "\"", row.get("itemName").asText());
+        }
+        assertEquals('\n', writer.toString().charAt(writer.toString().length() - 1));
+        assertEquals(1, writer.flushes);
+    }
+
+    @Test
+    void csvHasHeaderEscapedTextAndSingleFlush() {
+        CountingWriter writer = new CountingWriter();
+
+        assertEquals(ROWS, exportWriter.write(rows(), BookingExportFormat.CSV, writer));
+
+        List<String> lines = writer.toString().lines().toList();
+        assertEquals(ROWS + 1, lines.size());
+        assertEquals("id,start,end,status,item_id,item_name,owner_id,booker_id,booker_name", lines.get(0));
+        assertTrue(lines.get(1).contains(",\"вещь \"\"1\"\"\","));
+        assertEquals(1, writer.flushes);
+    }
+
+    @Test
+    void emptyNdjsonExportWritesNothing() {
+        CountingWriter writer = new CountingWriter();
+
+        assertEquals(0, exportWriter.write(Stream.empty(), BookingExportFormat.NDJSON, writer));
+
+        assertEquals("", writer.toString());
+    }
+
+    @Test
+    void failedNdjsonExportEndsWithErrorLine() throws Exception {
+        CountingWriter writer = new CountingWriter();
+
+        assertThrows(ExportAbortedException.class,
+                () -> exportWriter.write(failingAfter(3), BookingExportFormat.NDJSON, writer));
+
+        List<String> lines = writer.toString().lines().toList();
+        assertEquals(4, lines.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 1, objectMapper.readTree(lines.get(i)).get("id").asLong());
+        }
+        JsonNode error = objectMapper.readTree(lines.get(3));
+        assertTrue(error.get("error").asText().startsWith("Выгрузка прервана"));
+        assertEquals(3, error.get("exported").asLong());
+    }
+
+    @Test
+    void failedCsvExportEndsWithErrorLine() {
+        CountingWriter writer = new CountingWriter();
+
+        assertThrows(ExportAbortedException.class,
+                () -> exportWriter.write(failingAfter(3), BookingExportFormat.CSV, writer));
+
+        List<String> lines = writer.toString().lines().toList();
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(4).startsWith("#error,\"Выгрузка прервана"));
+        assertTrue(writer.toString().endsWith("\n"));
+    }
+
+    @Test
+    void exportStopsAtTimeout() throws Exception {
+        BookingExportWriter zeroTimeout = new BookingExportWriter(objectMapper, 0);
+        CountingWriter writer = new CountingWriter();
+
+        assertThrows(ExportAbortedException.class,
+                () -> zeroTimeout.write(rows(), BookingExportFormat.NDJSON, writer));
+
+        List<String> lines = writer.toString().lines().toList();
+        assertEquals(1, lines.size());
+        assertTrue(objectMapper.readTree(lines.get(0)).get("error").asText().contains("превышено время"));
+    }
+
+    private Stream<BookingExportRow> failingAfter(int count) {
+        return Stream.concat(rows().limit(count), Stream.<BookingExportRow>generate(() -> {
+            throw new DataAccessResourceFailureException("соединение с БД потеряно");
+        }));
+    }
+
+    private Stream<BookingExportRow> rows() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        return LongStream.rangeClosed(1, ROWS).mapToObj(id -> new BookingExportRow(id,
+                start.plusDays(id), start.plusDays(id + 1), BookingStatus.APPROVED,
+                id * 10, "вещь \"" + id + "\"", 1L, 2L, "арендатор"));
+    }
+
+    private static class CountingWriter extends StringWriter {
+        int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+            super.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            throw new IOException("Поток ответа не должен закрываться");
+        }
+    }
+}
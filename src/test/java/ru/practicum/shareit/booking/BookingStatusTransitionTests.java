@@ -0,0 +1,174 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+
+/**
+ * Решение владельца и отмена бронирования - один условный UPDATE; при 0 измененных строк
+ * причина выясняется отдельно: 404 - бронирования нет, 403 - чужое, 400 - статус уже изменен,
+ * 409 - статус изменился между UPDATE и проверкой.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingStatusTransitionTests {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @SpyBean
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User booker;
+    private User stranger;
+    private Booking waiting;
+    private Booking approved;
+
+    @BeforeEach
+    void seed() {
+        long suffix = System.nanoTime();
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@mail.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@mail.ru").build());
+        stranger = userRepository.save(User.builder().name("stranger").email("stranger" + suffix + "@mail.ru").build());
+        Item item = itemRepository.save(Item.builder()
+                .userId(owner.getId())
+                .name("дрель")
+                .description("ударная")
+                .available(true)
+                .build());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        waiting = bookingRepository.save(Booking.builder()
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .start(start)
+                .end(start.plusDays(1))
+                .status(BookingStatus.WAITING)
+                .build());
+        approved = bookingRepository.save(Booking.builder()
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .start(start.plusDays(5))
+                .end(start.plusDays(6))
+                .status(BookingStatus.APPROVED)
+                .build());
+    }
+
+    @Test
+    void ownerApprovesWaitingBooking() throws Exception {
+        perform(decide(owner, waiting.getId(), true), 200);
+
+        assertEquals(BookingStatus.APPROVED, statusOf(waiting));
+    }
+
+    @Test
+    void ownerRejectsWaitingBooking() throws Exception {
+        perform(decide(owner, waiting.getId(), false), 200);
+
+        assertEquals(BookingStatus.REJECTED, statusOf(waiting));
+    }
+
+    @Test
+    void decisionOnMissingBookingIsNotFound() throws Exception {
+        perform(decide(owner, Long.MAX_VALUE, true), 404);
+    }
+
+    @Test
+    void decisionByNonOwnerIsForbidden() throws Exception {
+        perform(decide(booker, waiting.getId(), true), 403);
+
+        assertEquals(BookingStatus.WAITING, statusOf(waiting));
+    }
+
+    @Test
+    void decisionOnDecidedBookingIsBadRequest() throws Exception {
+        perform(decide(owner, approved.getId(), false), 400);
+
+        assertEquals(BookingStatus.APPROVED, statusOf(approved));
+    }
+
+    @Test
+    void decisionLostToConcurrentChangeIsConflict() throws Exception {
+        // UPDATE не изменил строк, хотя бронирование все еще ожидает решения этого владельца
+        doReturn(0).when(bookingRepository).decideWaiting(anyLong(), anyLong(), any());
+
+        perform(decide(owner, waiting.getId(), true), 409);
+    }
+
+    @Test
+    void bookerCancelsWaitingBooking() throws Exception {
+        perform(cancel(booker, waiting.getId()), 200);
+
+        assertEquals(BookingStatus.CANCELED, statusOf(waiting));
+    }
+
+    @Test
+    void cancellationOfMissingBookingIsNotFound() throws Exception {
+        perform(cancel(booker, Long.MAX_VALUE), 404);
+    }
+
+    @Test
+    void cancellationByOtherUserIsForbidden() throws Exception {
+        perform(cancel(stranger, waiting.getId()), 403);
+
+        assertEquals(BookingStatus.WAITING, statusOf(waiting));
+    }
+
+    @Test
+    void cancellationOfDecidedBookingIsBadRequest() throws Exception {
+        perform(cancel(booker, approved.getId()), 400);
+
+        assertEquals(BookingStatus.APPROVED, statusOf(approved));
+    }
+
+    @Test
+    void cancellationLostToConcurrentChangeIsConflict() throws Exception {
+        doReturn(0).when(bookingRepository).cancelWaiting(anyLong(), anyLong());
+
+        perform(cancel(booker, waiting.getId()), 409);
+    }
+
+    private MockHttpServletRequestBuilder decide(User user, Long bookingId, boolean approve) {
+        return patch("/bookings/{bookingId}", bookingId)
+                .header(USER_HEADER, user.getId())
+                .param("approved", String.valueOf(approve));
+    }
+
+    private MockHttpServletRequestBuilder cancel(User user, Long bookingId) {
+        return patch("/bookings/{bookingId}/cancel", bookingId)
+                .header(USER_HEADER, user.getId());
+    }
+
+    private void perform(MockHttpServletRequestBuilder request, int expectedStatus) throws Exception {
+        assertEquals(expectedStatus, mockMvc.perform(request).andReturn().getResponse().getStatus());
+    }
+
+    private BookingStatus statusOf(Booking booking) {
+        return bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+    }
+}
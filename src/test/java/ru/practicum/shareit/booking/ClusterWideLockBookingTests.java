@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.booking.service.ItemLockManager;
+import ru.practicum.shareit.exception.BookingValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+/**
+ * С блокировкой, общей для узлов (advisory), пересечения при создании бронирования
+ * проверяются по БД: подтверждение на другом узле не попадает в индекс этого узла.
+ */
+@SpringBootTest
+class ClusterWideLockBookingTests {
+    @MockBean
+    private ItemLockManager itemLockManager;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemAvailabilityIndex itemAvailabilityIndex;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void seed() {
+        when(itemLockManager.isClusterWide()).thenReturn(true);
+
+        long suffix = System.nanoTime();
+        User owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@mail.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@mail.ru").build());
+        item = itemRepository.save(Item.builder()
+                .userId(owner.getId())
+                .name("дрель")
+                .description("ударная")
+                .available(true)
+                .build());
+    }
+
+    @Test
+    void approvalOnAnotherNodeBlocksOverlappingBooking() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        // Индекс этого узла загружен, пока подтвержденных бронирований нет
+        assertFalse(itemAvailabilityIndex.hasOverlap(item.getId(), start, start.plusDays(1)));
+
+        // Подтверждение на другом узле: строка есть в БД, индекс этого узла о ней не знает
+        bookingRepository.save(Booking.builder()
+                .itemId(item.getId())
+                .bookerId(booker.getId())
+                .start(start)
+                .end(start.plusDays(1))
+                .status(BookingStatus.APPROVED)
+                .build());
+
+        assertThrows(BookingValidationException.class, () -> bookingService.createBooking(booker.getId(),
+                BookingRequestDto.builder()
+                        .itemId(item.getId())
+                        .start(start.plusHours(6))
+                        .end(start.plusDays(2))
+                        .build()));
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.ItemAvailabilityIndex;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Логика интервалов индекса доступности без транзакций: изменения применяются сразу.
+ * Подтверждение, пришедшее во время загрузки вещи из БД, не теряется.
+ */
+class ItemAvailabilityIndexTests {
+    private static final Long ITEM_ID = 1L;
+
+    private final LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+
+    private BookingRepository bookingRepository;
+    private ItemAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findByItemIdAndStatusAndEndAfter(eq(ITEM_ID), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of());
+        index = new ItemAvailabilityIndex(bookingRepository, 1000, 600_000);
+    }
+
+    @Test
+    void insertedIntervalOverlapsOnlyIntersectingRanges() {
+        load();
+        index.addApproved(booking(10L, 10, 20));
+
+        assertTrue(index.hasOverlap(ITEM_ID, at(15), at(25)));
+        assertTrue(index.hasOverlap(ITEM_ID, at(5), at(11)));
+        assertTrue(index.hasOverlap(ITEM_ID, at(12), at(13)));
+        assertFalse(index.hasOverlap(ITEM_ID, at(0), at(5)));
+        assertFalse(index.hasOverlap(ITEM_ID, at(25), at(30)));
+    }
+
+    @Test
+    void touchingIntervalsDoNotOverlap() {
+        load();
+        index.addApproved(booking(10L, 10, 20));
+
+        assertFalse(index.hasOverlap(ITEM_ID, at(20), at(30)));
+        assertFalse(index.hasOverlap(ITEM_ID, at(0), at(10)));
+    }
+
+    @Test
+    void prefixMaxEndCoversShorterLaterIntervals() {
+        load();
+        // Длинный интервал начинается первым, за ним короткий: окно между 32 и 40
+        // пересекается только с длинным, что видно лишь по префиксному максимуму
+        index.addApproved(booking(10L, 0, 50));
+        index.addApproved(booking(11L, 30, 32));
+
+        assertTrue(index.hasOverlap(ITEM_ID, at(35), at(40)));
+        assertFalse(index.hasOverlap(ITEM_ID, at(50), at(60)));
+    }
+
+    @Test
+    void removedIntervalNoLongerOverlaps() {
+        load();
+        index.addApproved(booking(10L, 0, 50));
+        index.addApproved(booking(11L, 30, 32));
+
+        index.remove(booking(10L, 0, 50));
+
+        assertFalse(index.hasOverlap(ITEM_ID, at(35), at(40)));
+        assertTrue(index.hasOverlap(ITEM_ID, at(31), at(40)));
+    }
+
+    @Test
+    void reapprovalReplacesIntervalWithSameId() {
+        load();
+        index.addApproved(booking(10L, 0, 10));
+        index.addApproved(booking(10L, 20, 30));
+
+        assertFalse(index.hasOverlap(ITEM_ID, at(0), at(10)));
+        assertTrue(index.hasOverlap(ITEM_ID, at(25), at(26)));
+    }
+
+    @Test
+    void evictedItemIsReloadedFromDatabase() {
+        load();
+        index.addApproved(booking(10L, 10, 20));
+
+        // В БД бронирования уже нет (например, удалено каскадно вместе с пользователем)
+        index.evict(ITEM_ID);
+
+        assertFalse(index.hasOverlap(ITEM_ID, at(15), at(16)));
+        verify(bookingRepository, times(2))
+                .findByItemIdAndStatusAndEndAfter(eq(ITEM_ID), eq(BookingStatus.APPROVED), any());
+    }
+
+    @Test
+    void intervalsAreLoadedFromDatabaseOnMiss() {
+        when(bookingRepository.findByItemIdAndStatusAndEndAfter(eq(ITEM_ID), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of(booking(20L, 40, 45), booking(21L, 0, 5)));
+
+        assertTrue(index.hasOverlap(ITEM_ID, at(4), at(6)));
+        assertTrue(index.hasOverlap(ITEM_ID, at(44), at(50)));
+        assertFalse(index.hasOverlap(ITEM_ID, at(5), at(40)));
+    }
+
+    @Test
+    void approvalDuringLoadIsNotLost() {
+        Booking approved = booking(30L, 10, 20);
+        // Пока загрузка читает БД, подтверждение коммитится: загрузка его не видит,
+        // а индекс еще не содержит вещь, и изменение применить некуда
+        when(bookingRepository.findByItemIdAndStatusAndEndAfter(eq(ITEM_ID), eq(BookingStatus.APPROVED), any()))
+                .thenAnswer(invocation -> {
+                    index.addApproved(approved);
+                    return List.of();
+                })
+                .thenReturn(List.of(approved));
+
+        load();
+
+        assertTrue(index.hasOverlap(ITEM_ID, at(15), at(16)));
+        verify(bookingRepository, times(2))
+                .findByItemIdAndStatusAndEndAfter(eq(ITEM_ID), eq(BookingStatus.APPROVED), any());
+    }
+
+    // Индекс обновляет только загруженные вещи, поэтому сначала вещь загружается
+    private void load() {
+        assertFalse(index.hasOverlap(ITEM_ID, at(0), at(1000)));
+    }
+
+    private Booking booking(Long id, int startHour, int endHour) {
+        return Booking.builder()
+                .id(id)
+                .itemId(ITEM_ID)
+                .start(at(startHour))
+                .end(at(endHour))
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+
+    private LocalDateTime at(int hour) {
+        return base.plusHours(hour);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Маршрутизация между двумя базами H2: PRIMARY - основная, REPLICA - реплика
+ * (схема реплики создается теми же миграциями, данных в ней нет).
+ * Имя базы, к которой пришло соединение, возвращает функция DATABASE().
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "shareit.replica.endpoints[0].url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;INIT="
+                + "RUNSCRIPT FROM 'classpath:db/migration/common/V1__init_schema.sql'\\\\;"
+                + "RUNSCRIPT FROM 'classpath:db/migration/common/V2__add_indexes.sql'\\\\;"
+                + "RUNSCRIPT FROM 'classpath:db/migration/h2/V3__sequence_ids.sql'\\\\;"
+                + "RUNSCRIPT FROM 'classpath:db/migration/common/V4__version_columns.sql'\\\\;"
+                + "RUNSCRIPT FROM 'classpath:db/migration/common/V5__item_booking_summary.sql'\\\\;"
+                + "RUNSCRIPT FROM 'classpath:db/migration/common/V6__outbox_events.sql'\\\\;"
+                + "RUNSCRIPT FROM 'classpath:db/migration/common/V7__drop_item_summary_comments_count.sql'\\\\;"
+                + "RUNSCRIPT FROM 'classpath:db/migration/common/V8__outbox_dead_letters.sql'\\\\;"
+                + "RUNSCRIPT FROM 'classpath:db/migration/common/V9__outbox_per_node_delivery.sql'",
+        "shareit.replica.endpoints[0].username=sa",
+        "shareit.replica.read-your-writes-ms=60000"
+})
+@ActiveProfiles("replica")
+class ReplicaRoutingTests {
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ReadYourWritesTracker tracker;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void clearUser() {
+        ReadYourWritesTracker.clearCurrentUser();
+    }
+
+    @Test
+    void writeTransactionUsesPrimary() {
+        assertEquals("PRIMARY", database(false));
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() {
+        assertEquals("REPLICA", database(true));
+    }
+
+    @Test
+    void userReadsOwnWritesFromPrimary() {
+        ReadYourWritesTracker.setCurrentUser(1001L);
+        assertEquals("REPLICA", database(true));
+
+        database(false);
+        assertEquals("PRIMARY", database(true));
+
+        ReadYourWritesTracker.setCurrentUser(1002L);
+        assertEquals("REPLICA", database(true));
+    }
+
+    @Test
+    void rolledBackWriteDoesNotOpenWindow() {
+        ReadYourWritesTracker.setCurrentUser(1003L);
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        write.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+            status.setRollbackOnly();
+        });
+
+        assertEquals("REPLICA", database(true));
+    }
+
+    @Test
+    void poolsPublishMetricsPerRoute() {
+        database(true);
+        database(false);
+
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica-1").gauge());
+        assertNotNull(meterRegistry.find("shareit.db.route").tags("route", "replica", "reason", "read").counter());
+    }
+
+    private String database(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.model.ItemSummaryCheckReport;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сводка бронирований вещи: поддерживается при создании бронирований, устаревшая
+ * (в том числе после удаления арендатора) пересчитывается фоновой задачей,
+ * расхождения находит сверка и исправляет перестроение. Схема строится миграциями:
+ * каскадное удаление бронирований вместе с арендатором задано только в них.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:item-summary;DB_CLOSE_DELAY=-1",
+        "spring.h2.console.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("h2")
+class ItemBookingSummaryTests {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemBookingSummaryService summaryService;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private User booker;
+    private ItemDto item;
+
+    @BeforeEach
+    void seed() {
+        long suffix = System.nanoTime();
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@mail.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@mail.ru").build());
+        item = itemService.createItem(owner.getId(), ItemDto.builder()
+                .name("дрель")
+                .description("ударная")
+                .available(true)
+                .build());
+    }
+
+    @Test
+    void earliestNewBookingBecomesNext() {
+        LocalDateTime now = LocalDateTime.now();
+        book(now.plusDays(3));
+        Long earliest = book(now.plusDays(1));
+        book(now.plusDays(5));
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(earliest, summary.getNextBookingId());
+        assertEquals(booker.getId(), summary.getNextBookerId());
+        assertTrue(summary.isFreshAt(now));
+        assertEquals(earliest, itemService.getItemById(owner.getId(), item.getId()).getNextBooking().getId());
+    }
+
+    @Test
+    void dueSummaryIsRecomputed() {
+        Long next = book(LocalDateTime.now().plusDays(1));
+        jdbcTemplate.update("UPDATE item_booking_summary SET next_booking_id = NULL, next_booker_id = NULL, " +
+                "next_start = NULL, refresh_at = ? WHERE item_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(1)), item.getId());
+
+        // Устаревшая сводка не читается: ответ собирается по бронированиям
+        assertEquals(next, itemService.getItemById(owner.getId(), item.getId()).getNextBooking().getId());
+
+        summaryService.refreshDue();
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(next, summary.getNextBookingId());
+        assertTrue(summary.isFreshAt(LocalDateTime.now()));
+    }
+
+    @Test
+    void checkFindsDriftAndRebuildRepairsIt() {
+        summaryService.rebuild();
+        jdbcTemplate.update("UPDATE item_booking_summary SET last_booker_id = -1 WHERE item_id = ?", item.getId());
+
+        ItemSummaryCheckReport drifted = summaryService.check();
+        assertTrue(drifted.mismatchedItemIds().contains(item.getId()));
+
+        summaryService.rebuild();
+
+        ItemSummaryCheckReport repaired = summaryService.check();
+        assertEquals(0, repaired.mismatched());
+        assertFalse(repaired.mismatchedItemIds().contains(item.getId()));
+        assertNull(summaryRepository.findById(item.getId()).orElseThrow().getLastBookerId());
+    }
+
+    @Test
+    void deletingBookerMakesSummaryDue() {
+        book(LocalDateTime.now().plusDays(1));
+
+        // Бронирования удаляются каскадно в БД, сводка на них больше не должна ссылаться
+        userService.deleteUser(booker.getId());
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertFalse(summary.isFreshAt(LocalDateTime.now()));
+        assertNull(itemService.getItemById(owner.getId(), item.getId()).getNextBooking());
+
+        summaryService.refreshDue();
+
+        summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertNull(summary.getNextBookingId());
+        assertNull(summary.getNextBookerId());
+        assertTrue(summary.isFreshAt(LocalDateTime.now()));
+    }
+
+    private Long book(LocalDateTime start) {
+        return bookingService.createBooking(booker.getId(), BookingRequestDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusHours(12))
+                .build()).getId();
+    }
+}
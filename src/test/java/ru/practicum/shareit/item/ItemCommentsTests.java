@@ -0,0 +1,125 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Карточка вещи встраивает только последние комментарии и их общее число,
+ * полный список отдается постранично через GET /items/{id}/comments.
+ */
+@SpringBootTest(properties = "shareit.item.comments-preview-size=3")
+@AutoConfigureMockMvc
+class ItemCommentsTests {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final int COMMENTS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private User owner;
+    private Item item;
+    // id комментариев от новых к старым
+    private final List<Long> newestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        long suffix = System.nanoTime();
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@mail.ru").build());
+        User author = userRepository.save(User.builder().name("автор").email("author" + suffix + "@mail.ru").build());
+        item = itemRepository.save(Item.builder()
+                .userId(owner.getId())
+                .name("дрель")
+                .description("ударная")
+                .available(true)
+                .build());
+
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+        newestFirst.clear();
+        for (int i = 0; i < COMMENTS; i++) {
+            Comment comment = new Comment();
+            comment.setText("отзыв " + i);
+            comment.setItem(item);
+            comment.setAuthor(author);
+            // Пары комментариев с одинаковым временем проверяют порядок по id внутри ключа
+            comment.setCreated(created.plusMinutes(i / 2));
+            newestFirst.add(0, commentRepository.save(comment).getId());
+        }
+    }
+
+    @Test
+    void itemViewEmbedsNewestCommentsAndTotal() throws Exception {
+        JsonNode view = json(get("/items/" + item.getId()).header(USER_HEADER, owner.getId()));
+
+        assertEquals(COMMENTS, view.get("commentsCount").asLong());
+        assertEquals(newestFirst.subList(0, 3), ids(view.get("comments")));
+        assertEquals("автор", view.get("comments").get(0).get("authorName").asText());
+    }
+
+    @Test
+    void commentsArePagedByCursor() throws Exception {
+        List<Long> collected = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/items/" + item.getId() + "/comments").param("size", "3");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult result = mockMvc.perform(request).andReturn();
+            assertEquals(200, result.getResponse().getStatus());
+            collected.addAll(ids(objectMapper.readTree(result.getResponse().getContentAsString(StandardCharsets.UTF_8))));
+            cursor = result.getResponse().getHeader(PageCursor.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        assertEquals(newestFirst, collected);
+    }
+
+    @Test
+    void commentsOfUnknownItemAreNotFound() throws Exception {
+        MvcResult result = mockMvc.perform(get("/items/" + Long.MAX_VALUE + "/comments")).andReturn();
+
+        assertEquals(404, result.getResponse().getStatus());
+    }
+
+    private JsonNode json(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertEquals(200, result.getResponse().getStatus());
+        return objectMapper.readTree(result.getResponse().getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private static List<Long> ids(JsonNode comments) {
+        List<Long> ids = new ArrayList<>();
+        comments.forEach(comment -> ids.add(comment.get("id").asLong()));
+        return ids;
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Поисковый индекс отвечает так же, как LIKE-запрос ItemRepository.search: подстрока без учета
+ * регистра в названии или описании, только доступные вещи, по возрастанию id. Изменения вещей
+ * попадают в индекс после коммита.
+ */
+@SpringBootTest
+class ItemSearchIndexTests {
+    private static final int ALL = 1000;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String marker;
+    private User owner;
+    private Item drill;
+    private Item screwdriver;
+    private Item broken;
+
+    @BeforeEach
+    void seed() {
+        long suffix = System.nanoTime();
+        marker = "м" + suffix;
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@mail.ru").build());
+        drill = save("Дрель " + marker, "Ударная, с ПЕРФОРАТОРОМ", true);
+        screwdriver = save("Отвертка", "крестовая, к дрели " + marker, true);
+        broken = save("дрель " + marker, "сломанная", false);
+        save("Xy", "ab", true);
+        // Вещи сохранены в обход сервиса: индекс строится заново по содержимому БД
+        itemSearchIndex.rebuild();
+    }
+
+    @Test
+    void matchesLikeSearch() {
+        for (String text : List.of("дрель", "ДРЕЛЬ", "дРеЛь", "дрел", "перфоратор", "ударная, с", marker,
+                marker.toUpperCase(), "отвертка " + marker, "сломанная", "нет такой вещи")) {
+            assertEquals(likeSearch(text, 0, ALL), indexSearch(text, 0, ALL), "запрос '" + text + "'");
+        }
+    }
+
+    @Test
+    void shortQueriesMatchLikeSearch() {
+        for (String text : List.of("д", "Д", "др", "ДР", "x", "XY", "y", "b", ",", " ")) {
+            assertEquals(likeSearch(text, 0, ALL), indexSearch(text, 0, ALL), "запрос '" + text + "'");
+        }
+    }
+
+    @Test
+    void unavailableItemsAreNotFound() {
+        List<Long> found = indexSearch(marker, 0, ALL);
+
+        assertEquals(List.of(drill.getId(), screwdriver.getId()), found);
+        assertTrue(indexSearch("сломанная", 0, ALL).isEmpty());
+    }
+
+    @Test
+    void pageMatchesLikeSearch() {
+        assertEquals(likeSearch("д", 1, 2), indexSearch("д", 1, 2));
+        assertEquals(likeSearch(marker, 1, 5), indexSearch(marker, 1, 5));
+    }
+
+    @Test
+    void blankTextFindsNothing() {
+        assertTrue(itemService.searchItems("", 0, 10, null).isEmpty());
+        assertTrue(itemService.searchItems("   ", 0, 10, null).isEmpty());
+    }
+
+    @Test
+    void updatedItemIsFoundByNewTextOnly() {
+        drill.setName("Перфоратор " + marker);
+        drill.setDescription("без удара");
+        itemSearchIndex.put(itemRepository.save(drill));
+
+        assertTrue(indexSearch("дрель " + marker, 0, ALL).isEmpty());
+        assertTrue(indexSearch("без удара", 0, ALL).contains(drill.getId()));
+        assertEquals(likeSearch("перфоратор", 0, ALL), indexSearch("перфоратор", 0, ALL));
+    }
+
+    @Test
+    void itemBecomesSearchableWhenAvailable() {
+        broken.setAvailable(true);
+        itemSearchIndex.put(itemRepository.save(broken));
+
+        assertEquals(List.of(broken.getId()), indexSearch("сломанная", 0, ALL));
+
+        drill.setAvailable(false);
+        itemSearchIndex.put(itemRepository.save(drill));
+
+        assertFalse(indexSearch(marker, 0, ALL).contains(drill.getId()));
+    }
+
+    @Test
+    void removedItemsAreNotFound() {
+        itemSearchIndex.remove(drill.getId());
+
+        assertEquals(List.of(screwdriver.getId()), indexSearch(marker, 0, ALL));
+
+        itemSearchIndex.removeByOwner(owner.getId());
+
+        assertTrue(indexSearch(marker, 0, ALL).isEmpty());
+    }
+
+    @Test
+    void changesAreAppliedOnlyAfterCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            itemSearchIndex.remove(drill.getId());
+            assertTrue(indexSearch(marker, 0, ALL).contains(drill.getId()));
+            status.setRollbackOnly();
+        });
+        assertTrue(indexSearch(marker, 0, ALL).contains(drill.getId()));
+
+        transactionTemplate.executeWithoutResult(status -> itemSearchIndex.remove(drill.getId()));
+
+        assertFalse(indexSearch(marker, 0, ALL).contains(drill.getId()));
+    }
+
+    private Item save(String name, String description, boolean available) {
+        return itemRepository.save(Item.builder()
+                .userId(owner.getId())
+                .name(name)
+                .description(description)
+                .available(available)
+                .build());
+    }
+
+    private List<Long> indexSearch(String text, long offset, int limit) {
+        return itemSearchIndex.search(text, 0, offset, limit).stream()
+                .map(Item::getId)
+                .toList();
+    }
+
+    private List<Long> likeSearch(String text, long offset, int limit) {
+        return itemRepository.search(text, new OffsetPageRequest(offset, limit)).stream()
+                .map(Item::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+
+/**
+ * Обновление вещи - один UPDATE с владельцем в условии: чужая вещь дает 0 строк и 403,
+ * отсутствующая - 404, строка при этом не меняется. Версия запроса, к которому относится вещь,
+ * поднимается только при изменении строки вещи.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemUpdateTests {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private User owner;
+    private User stranger;
+    private ItemRequest request;
+    private Item item;
+
+    @BeforeEach
+    void seed() {
+        long suffix = System.nanoTime();
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@mail.ru").build());
+        stranger = userRepository.save(User.builder().name("stranger").email("stranger" + suffix + "@mail.ru").build());
+        request = itemRequestRepository.save(ItemRequest.builder()
+                .description("нужна дрель")
+                .requestorId(stranger.getId())
+                .created(LocalDateTime.now())
+                .build());
+        item = itemRepository.save(Item.builder()
+                .userId(owner.getId())
+                .name("дрель")
+                .description("ударная")
+                .available(true)
+                .requestId(request.getId())
+                .build());
+    }
+
+    @Test
+    void ownerUpdatesSuppliedFieldsOnly() throws Exception {
+        assertEquals(200, update(owner, item.getId(), "{\"available\": false}"));
+
+        Item updated = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals(false, updated.getAvailable());
+        assertEquals("дрель", updated.getName());
+        assertEquals(item.getVersion() + 1, updated.getVersion());
+    }
+
+    @Test
+    void nonOwnerUpdateChangesNothing() throws Exception {
+        assertEquals(403, update(stranger, item.getId(), "{\"name\": \"чужая\", \"available\": false}"));
+
+        Item unchanged = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals("дрель", unchanged.getName());
+        assertEquals(true, unchanged.getAvailable());
+        assertEquals(item.getVersion(), unchanged.getVersion());
+    }
+
+    @Test
+    void requestVersionChangesOnlyWithItemRow() throws Exception {
+        long requestVersion = requestVersion();
+
+        assertEquals(200, update(owner, item.getId(), "{}"));
+        assertEquals(requestVersion, requestVersion());
+        assertEquals(item.getVersion(), itemRepository.findById(item.getId()).orElseThrow().getVersion());
+
+        assertEquals(403, update(stranger, item.getId(), "{\"name\": \"чужая\"}"));
+        assertEquals(requestVersion, requestVersion());
+
+        assertEquals(200, update(owner, item.getId(), "{\"name\": \"перфоратор\"}"));
+        assertEquals(requestVersion + 1, requestVersion());
+    }
+
+    @Test
+    void updateOfMissingItemIsNotFound() throws Exception {
+        assertEquals(404, update(owner, Long.MAX_VALUE, "{\"name\": \"новая\"}"));
+    }
+
+    private long requestVersion() {
+        return itemRequestRepository.findVersionById(request.getId()).orElseThrow();
+    }
+
+    private int update(User user, Long itemId, String body) throws Exception {
+        return mockMvc.perform(patch("/items/{itemId}", itemId)
+                        .header(USER_HEADER, user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn().getResponse().getStatus();
+    }
+}
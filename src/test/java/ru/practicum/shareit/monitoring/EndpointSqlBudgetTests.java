@@ -0,0 +1,190 @@
+package ru.practicum.shareit.monitoring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Бюджеты SQL-запросов для списочных эндпоинтов. Данных больше, чем бюджет,
+ * поэтому поштучная загрузка связей (N+1) сразу выходит за его пределы.
+ */
+@SpringBootTest(properties = "shareit.sql.debug-headers=true")
+@AutoConfigureMockMvc
+class EndpointSqlBudgetTests {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final int ITEMS = 5;
+    private static final int BATCH_ITEMS = 100;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemBookingSummaryService itemBookingSummaryService;
+
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void seed() {
+        long suffix = System.nanoTime();
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@mail.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@mail.ru").build());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < ITEMS; i++) {
+            ItemRequest request = itemRequestRepository.save(ItemRequest.builder()
+                    .description("нужна вещь " + i)
+                    .requestorId(booker.getId())
+                    .created(now.minusDays(i))
+                    .build());
+            Item item = itemRepository.save(Item.builder()
+                    .userId(owner.getId())
+                    .name("вещь " + i)
+                    .description("описание " + i)
+                    .available(true)
+                    .requestId(request.getId())
+                    .build());
+            bookingRepository.save(Booking.builder()
+                    .itemId(item.getId())
+                    .bookerId(booker.getId())
+                    .start(now.minusDays(3))
+                    .end(now.minusDays(2))
+                    .status(BookingStatus.APPROVED)
+                    .build());
+            bookingRepository.save(Booking.builder()
+                    .itemId(item.getId())
+                    .bookerId(booker.getId())
+                    .start(now.plusDays(i + 1))
+                    .end(now.plusDays(i + 2))
+                    .status(BookingStatus.WAITING)
+                    .build());
+            Comment comment = new Comment();
+            comment.setText("отзыв " + i);
+            comment.setItem(item);
+            comment.setAuthor(booker);
+            comment.setCreated(now.minusDays(1));
+            commentRepository.save(comment);
+        }
+        // Данные записаны в обход сервисов, сводки бронирований строятся по ним заново
+        itemBookingSummaryService.rebuild();
+    }
+
+    @Test
+    void ownerBookingsWithinBudget() {
+        perform("GET /bookings/owner", 2, get("/bookings/owner").header(USER_HEADER, owner.getId()));
+    }
+
+    @Test
+    void bookerBookingsWithinBudget() {
+        perform("GET /bookings", 2, get("/bookings").header(USER_HEADER, booker.getId()));
+    }
+
+    @Test
+    void ownerItemsWithinBudget() {
+        perform("GET /items", 3, get("/items").header(USER_HEADER, owner.getId()));
+    }
+
+    @Test
+    void itemCommentsWithinBudget() {
+        Long itemId = itemRepository.findRowsByUserId(owner.getId()).get(0).id();
+        // Проверка вещи и страница комментариев с именами авторов
+        perform("GET /items/{id}/comments", 2, get("/items/" + itemId + "/comments"));
+    }
+
+    @Test
+    void otherUsersRequestsWithinBudget() {
+        perform("GET /requests/all", 3, get("/requests/all").header(USER_HEADER, owner.getId()));
+    }
+
+    @Test
+    void ownerExportStreamsAllRowsInOneQuery() throws Exception {
+        // Пользователь и один потоковый запрос с JOIN вещей и арендаторов
+        MvcResult result = perform("GET /bookings/owner/export", 2,
+                get("/bookings/owner/export").header(USER_HEADER, owner.getId()));
+
+        assertEquals("application/x-ndjson;charset=UTF-8", result.getResponse().getContentType());
+        assertEquals(ITEMS * 2, result.getResponse().getContentAsString().lines().count());
+    }
+
+    @Test
+    void bookerExportAsCsvHasHeaderAndRows() throws Exception {
+        MvcResult result = perform("GET /bookings/export", 2,
+                get("/bookings/export").header(USER_HEADER, booker.getId()).param("format", "csv"));
+
+        List<String> lines = result.getResponse().getContentAsString().lines().toList();
+        assertEquals(ITEMS * 2 + 1, lines.size());
+        assertTrue(lines.get(0).startsWith("id,start,end,status"));
+    }
+
+    @Test
+    void batchItemCreationWithinBudget() throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < BATCH_ITEMS; i++) {
+            body.append(i == 0 ? "" : ",")
+                    .append("{\"name\":\"пакет ").append(i)
+                    .append("\",\"description\":\"вещь из пакета\",\"available\":true}");
+        }
+        body.append("]");
+
+        // Владелец, пулы id вещей и событий outbox из последовательностей и INSERT-пакеты
+        // вещей, сводок и событий по hibernate.jdbc.batch_size
+        MvcResult result = perform("POST /items/batch", 8, post("/items/batch")
+                .header(USER_HEADER, owner.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body.toString()));
+
+        assertTrue(result.getResponse().getContentAsString().contains("\"index\":" + (BATCH_ITEMS - 1)));
+    }
+
+    @Test
+    void responseReportsStatementCount() {
+        MvcResult result = perform("GET /requests", 3, get("/requests").header(USER_HEADER, booker.getId()));
+
+        String header = result.getResponse().getHeader(SqlStatementHeaderAdvice.STATEMENT_COUNT_HEADER);
+        assertNotNull(header);
+        assertEquals(null, result.getResponse().getHeader(SqlStatementHeaderAdvice.N_PLUS_ONE_HEADER));
+    }
+
+    private MvcResult perform(String name, int budget, RequestBuilder request) {
+        MvcResult result = SqlStatementBudget.assertWithinBudget(name, budget,
+                () -> mockMvc.perform(request).andReturn());
+        assertEquals(200, result.getResponse().getStatus(), name + ": " + result.getResponse().getStatus());
+        return result;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.monitoring;
+
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Бюджет SQL-запросов для теста: блок кода должен уложиться в заданное число
+ * запросов к БД и не повторять один и тот же SQL (подозрение на N+1).
+ */
+public final class SqlStatementBudget {
+
+    private SqlStatementBudget() {
+    }
+
+    public static <T> T assertWithinBudget(String name, int budget, ThrowingSupplier<T> action) {
+        SqlStatementStatistics statistics = SqlStatementInspector.start();
+        T result;
+        try {
+            result = action.get();
+        } catch (Throwable e) {
+            return fail(name + ": ошибка при выполнении", e);
+        } finally {
+            SqlStatementInspector.stop(statistics);
+        }
+
+        assertTrue(statistics.total() <= budget, () -> String.format("%s: %d SQL-запросов при бюджете %d%n%s",
+                name, statistics.total(), budget, String.join(System.lineSeparator(), statistics.statements())));
+        assertTrue(statistics.suspectedNPlusOne().isEmpty(),
+                () -> name + ": повторяющиеся SQL-запросы (N+1): " + statistics.suspectedNPlusOne());
+        return result;
+    }
+}
@@ -0,0 +1,329 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.outbox.model.DomainEventType;
+import ru.practicum.shareit.outbox.model.OutboxDeadLetter;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repository.OutboxDeadLetterRepository;
+import ru.practicum.shareit.outbox.repository.OutboxDeliveryRepository;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.outbox.repository.OutboxNodeRepository;
+import ru.practicum.shareit.outbox.service.DomainEventPublisher;
+import ru.practicum.shareit.outbox.service.OutboxDispatcher;
+import ru.practicum.shareit.outbox.service.ProjectionHandler;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Outbox: события пишутся в транзакции изменения, диспетчер доставляет их проекциям
+ * в порядке записи; событие удаляется только после доставки всем проекциям на всех живых узлах.
+ * Событие, которое проекция не может обработать, после MAX_ATTEMPTS попыток уходит в outbox_dead_letters.
+ * Опрос по расписанию отключен длинным интервалом, доставка вызывается из тестов.
+ */
+@SpringBootTest(properties = {
+        "shareit.outbox.poll-interval-ms=3600000",
+        "shareit.outbox.max-attempts=" + OutboxDispatcherTests.MAX_ATTEMPTS
+})
+class OutboxDispatcherTests {
+    static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private OutboxDeadLetterRepository outboxDeadLetterRepository;
+    @Autowired
+    private OutboxDeliveryRepository outboxDeliveryRepository;
+    @Autowired
+    private OutboxNodeRepository outboxNodeRepository;
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private DomainEventPublisher domainEventPublisher;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private RecordingProjection recordingProjection;
+
+    private User owner;
+
+    @BeforeEach
+    void seed() {
+        outboxDispatcher.dispatch();
+        recordingProjection.reset();
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("owner" + System.nanoTime() + "@mail.ru")
+                .build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        recordingProjection.failing = false;
+        recordingProjection.poisonAggregateId = null;
+    }
+
+    @Test
+    void itemChangesAreDeliveredInOrderAndRemoved() {
+        ItemDto item = itemService.createItem(owner.getId(), newItem("дрель"));
+        itemService.updateItem(owner.getId(), item.getId(), ItemDto.builder().name("перфоратор").build());
+        itemService.deleteItem(owner.getId(), item.getId());
+
+        assertEquals(List.of(DomainEventType.ITEM_CREATED, DomainEventType.ITEM_UPDATED,
+                DomainEventType.ITEM_DELETED), outboxEventRepository.findAll().stream()
+                .map(OutboxEvent::getEventType)
+                .toList());
+
+        assertEquals(3, outboxDispatcher.dispatch());
+
+        assertEquals(List.of("ITEM_CREATED:" + item.getId(), "ITEM_UPDATED:" + item.getId(),
+                "ITEM_DELETED:" + item.getId()), recordingProjection.received);
+        assertTrue(outboxEventRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void searchIndexFollowsEvents() {
+        ItemDto item = itemService.createItem(owner.getId(), newItem("шуруповерт"));
+        assertTrue(itemService.searchItems("шуруповерт", 0, 10, null).isEmpty());
+
+        outboxDispatcher.dispatch();
+
+        assertEquals(List.of(item.getId()), itemService.searchItems("шуруповерт", 0, 10, null).stream()
+                .map(ItemDto::getId)
+                .toList());
+    }
+
+    @Test
+    void failedProjectionKeepsBatchForRetry() {
+        ItemDto item = itemService.createItem(owner.getId(), newItem("стремянка"));
+        recordingProjection.failing = true;
+
+        assertEquals(0, outboxDispatcher.dispatch());
+        assertEquals(1, outboxEventRepository.count());
+        assertTrue(itemService.searchItems("стремянка", 0, 10, null).isEmpty());
+
+        recordingProjection.failing = false;
+        assertEquals(1, outboxDispatcher.dispatch());
+        assertEquals(List.of(item.getId()), itemService.searchItems("стремянка", 0, 10, null).stream()
+                .map(ItemDto::getId)
+                .toList());
+    }
+
+    @Test
+    void poisonEventIsMovedAsideAndQueueContinues() {
+        ItemDto poison = itemService.createItem(owner.getId(), newItem("битая"));
+        ItemDto next = itemService.createItem(owner.getId(), newItem("обычная"));
+        recordingProjection.poisonAggregateId = poison.getId();
+        double deadLettersBefore = deadLetterCount();
+
+        // Пока попытки не исчерпаны, событие держит очередь, следующие не доставляются
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            assertEquals(0, outboxDispatcher.dispatch());
+            OutboxEvent head = outboxEventRepository.findUndelivered(outboxDispatcher.nodeId(), PageRequest.of(0, 1))
+                    .get(0);
+            assertEquals(poison.getId(), head.getAggregateId());
+        }
+        assertTrue(recordingProjection.received.isEmpty());
+
+        assertEquals(1, outboxDispatcher.dispatch());
+
+        assertTrue(outboxEventRepository.findAll().isEmpty());
+        assertEquals(List.of("ITEM_CREATED:" + next.getId()), recordingProjection.received);
+        OutboxDeadLetter deadLetter = outboxDeadLetterRepository.findAll().stream()
+                .filter(letter -> letter.getAggregateId().equals(poison.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(DomainEventType.ITEM_CREATED, deadLetter.getEventType());
+        assertEquals(MAX_ATTEMPTS, deadLetter.getAttempts());
+        assertEquals("recording", deadLetter.getHandler());
+        assertEquals("битое событие", deadLetter.getError());
+        assertEquals(deadLettersBefore + 1, deadLetterCount());
+    }
+
+    @Test
+    void everyNodeReceivesEventAndItIsRemovedAfterLastNode() {
+        RecordingProjection otherProjection = new RecordingProjection();
+        OutboxDispatcher otherNode = newNode(otherProjection);
+        otherNode.register();
+        try {
+            ItemDto item = itemService.createItem(owner.getId(), newItem("тиски"));
+
+            assertEquals(1, outboxDispatcher.dispatch());
+            // Второй узел еще не получил событие: оно остается в очереди
+            assertEquals(1, outboxEventRepository.count());
+            assertEquals(0, outboxDispatcher.dispatch());
+
+            assertEquals(1, otherNode.dispatch());
+
+            assertEquals(List.of("ITEM_CREATED:" + item.getId()), recordingProjection.received);
+            assertEquals(List.of("ITEM_CREATED:" + item.getId()), otherProjection.received);
+            assertEquals(0, outboxEventRepository.count());
+            assertEquals(0, outboxDeliveryRepository.count());
+        } finally {
+            otherNode.deregister();
+        }
+    }
+
+    @Test
+    void expiredNodeNoLongerHoldsEvents() {
+        RecordingProjection otherProjection = new RecordingProjection();
+        OutboxDispatcher otherNode = newNode(otherProjection);
+        otherNode.register();
+        transactionTemplate.executeWithoutResult(status -> outboxNodeRepository.findById(otherNode.nodeId())
+                .orElseThrow()
+                .setHeartbeatAt(LocalDateTime.now().minusHours(1)));
+        itemService.createItem(owner.getId(), newItem("струбцина"));
+
+        assertEquals(1, outboxDispatcher.dispatch());
+
+        assertEquals(0, outboxEventRepository.count());
+        assertFalse(outboxNodeRepository.existsById(otherNode.nodeId()));
+
+        // Узел вернулся после паузы: регистрируется заново и перестраивает проекции
+        itemService.createItem(owner.getId(), newItem("наковальня"));
+        assertEquals(1, otherNode.dispatch());
+        assertTrue(outboxNodeRepository.existsById(otherNode.nodeId()));
+        assertEquals(1, otherProjection.rebuilds);
+        otherNode.deregister();
+    }
+
+    @Test
+    void concurrentPollOfSameNodeIsSkipped() throws Exception {
+        itemService.createItem(owner.getId(), newItem("верстак"));
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            outboxNodeRepository.claim(outboxDispatcher.nodeId()).orElseThrow();
+            claimed.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        try {
+            assertTrue(claimed.await(10, TimeUnit.SECONDS));
+
+            assertEquals(0, outboxDispatcher.dispatch());
+            assertTrue(recordingProjection.received.isEmpty());
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+
+        assertEquals(1, outboxDispatcher.dispatch());
+    }
+
+    @Test
+    void eventIsRolledBackWithTransaction() {
+        transactionTemplate.executeWithoutResult(status -> {
+            domainEventPublisher.publish(DomainEventType.USER_DELETED, owner.getId(), Map.of());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    void publishingOutsideTransactionIsRejected() {
+        assertThrows(IllegalTransactionStateException.class,
+                () -> domainEventPublisher.publish(DomainEventType.USER_DELETED, owner.getId(), Map.of()));
+    }
+
+    private OutboxDispatcher newNode(ProjectionHandler projection) {
+        return new OutboxDispatcher(outboxEventRepository, outboxDeliveryRepository, outboxNodeRepository,
+                outboxDeadLetterRepository, List.of(projection), transactionTemplate, new SimpleMeterRegistry(),
+                200, 50, MAX_ATTEMPTS, 60000);
+    }
+
+    private double deadLetterCount() {
+        return meterRegistry.counter("shareit.outbox.dead.letters", "handler", "recording").count();
+    }
+
+    private static ItemDto newItem(String name) {
+        return ItemDto.builder()
+                .name(name)
+                .description("для проверки outbox")
+                .available(true)
+                .build();
+    }
+
+    @TestConfiguration
+    static class RecordingProjectionConfig {
+        @Bean
+        RecordingProjection recordingProjection() {
+            return new RecordingProjection();
+        }
+    }
+
+    static class RecordingProjection implements ProjectionHandler {
+        final List<String> received = new ArrayList<>();
+        volatile boolean failing;
+        volatile Long poisonAggregateId;
+        int rebuilds;
+
+        @Override
+        public String name() {
+            return "recording";
+        }
+
+        @Override
+        public Set<DomainEventType> eventTypes() {
+            return EnumSet.of(DomainEventType.ITEM_CREATED, DomainEventType.ITEM_UPDATED,
+                    DomainEventType.ITEM_DELETED);
+        }
+
+        @Override
+        public void handle(List<OutboxEvent> events) {
+            if (failing) {
+                throw new IllegalStateException("проекция недоступна");
+            }
+            if (events.stream().anyMatch(event -> event.getAggregateId().equals(poisonAggregateId))) {
+                throw new IllegalArgumentException("битое событие");
+            }
+            events.forEach(event -> received.add(event.getEventType() + ":" + event.getAggregateId()));
+        }
+
+        @Override
+        public void rebuild() {
+            rebuilds++;
+        }
+
+        void reset() {
+            received.clear();
+        }
+    }
+}
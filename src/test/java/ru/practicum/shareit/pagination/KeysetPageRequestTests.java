@@ -0,0 +1,102 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Курсор переживает кодирование без потерь и подходит только выдавшему его списку,
+ * а без курсора страница задается смещением from.
+ */
+class KeysetPageRequestTests {
+    private static final LocalDateTime CREATED = LocalDateTime.of(2030, 5, 17, 10, 15, 30, 123456789);
+
+    @Test
+    void cursorRoundTrip() {
+        PageCursor cursor = PageCursor.of(PageList.ITEM_COMMENTS, CREATED, 42L);
+
+        assertEquals(cursor, PageCursor.decode(cursor.encode(), PageList.ITEM_COMMENTS));
+    }
+
+    @Test
+    void idOnlyCursorRoundTrip() {
+        PageCursor decoded = PageCursor.decode(PageCursor.of(PageList.OWNER_ITEMS, 7L).encode(), PageList.OWNER_ITEMS);
+
+        assertNull(decoded.timestamp());
+        assertEquals(7L, decoded.id());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        for (String cursor : List.of("не base64!", encode("без разделителя"), encode("ITEM_COMMENTS|2030-13-45T10:00|1"),
+                encode("ITEM_COMMENTS||не число"), encode("НЕТ_ТАКОГО||1"), encode("2030-05-17T10:15|1"),
+                encode("ITEM_COMMENTS||1|2"))) {
+            assertThrows(ValidationException.class, () -> PageCursor.decode(cursor, PageList.ITEM_COMMENTS), cursor);
+        }
+    }
+
+    @Test
+    void cursorOfAnotherListIsRejected() {
+        String cursor = PageCursor.of(PageList.USER_BOOKINGS, CREATED, 42L).encode();
+
+        assertThrows(ValidationException.class, () -> PageCursor.decode(cursor, PageList.OWNER_BOOKINGS));
+        assertThrows(ValidationException.class,
+                () -> KeysetPageRequest.of(PageList.ITEM_COMMENTS, 0, 10, cursor));
+    }
+
+    @Test
+    void withoutCursorPageStartsAtFrom() {
+        KeysetPageRequest page = KeysetPageRequest.of(PageList.USER_BOOKINGS, 5, 10, null);
+
+        assertEquals(5, page.pageable().getOffset());
+        assertEquals(10, page.size());
+        assertEquals(Long.MAX_VALUE, page.beforeId());
+        assertEquals(0L, page.afterId());
+        // Граница без курсора пропускает любую реальную дату
+        assertTrue(page.beforeTimestamp().isAfter(CREATED));
+    }
+
+    @Test
+    void blankCursorFallsBackToFrom() {
+        assertEquals(3, KeysetPageRequest.of(PageList.USER_BOOKINGS, 3, 10, " ").pageable().getOffset());
+    }
+
+    @Test
+    void cursorReplacesFrom() {
+        KeysetPageRequest page = KeysetPageRequest.of(PageList.USER_BOOKINGS, 5, 10,
+                PageCursor.of(PageList.USER_BOOKINGS, CREATED, 42L).encode());
+
+        assertEquals(0, page.pageable().getOffset());
+        assertEquals(CREATED, page.beforeTimestamp());
+        assertEquals(42L, page.beforeId());
+        assertEquals(42L, page.afterId());
+    }
+
+    @Test
+    void idOnlyCursorIsRejectedForTimestampOrder() {
+        KeysetPageRequest page = KeysetPageRequest.of(PageList.USER_BOOKINGS, 0, 10,
+                PageCursor.of(PageList.USER_BOOKINGS, 7L).encode());
+
+        assertThrows(ValidationException.class, page::beforeTimestamp);
+    }
+
+    @Test
+    void invalidSizeOrFromIsRejected() {
+        assertThrows(ValidationException.class, () -> KeysetPageRequest.of(PageList.OWNER_ITEMS, 0, 0, null));
+        assertThrows(ValidationException.class, () -> KeysetPageRequest.of(PageList.OWNER_ITEMS, 0, null, null));
+        assertThrows(ValidationException.class, () -> KeysetPageRequest.of(PageList.OWNER_ITEMS, -1, 10, null));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,180 @@
+package ru.practicum.shareit.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserSnapshot;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Кеш пользователей: изменение попадает в кеш после коммита, откат кеш не трогает,
+ * чтение, начатое до изменения, не возвращает в кеш старую строку, удаленный пользователь
+ * не находится через кеш. Ответ на изменение собирается по строке после UPDATE.
+ * Попадания и промахи видны в actuator (cache.gets).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserCacheTests {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Cache cache;
+    private Long userId;
+
+    @BeforeEach
+    void seed() {
+        cache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        userId = userRepository.save(User.builder()
+                .name("user")
+                .email("user" + System.nanoTime() + "@mail.ru")
+                .build()).getId();
+        userCache.get(userId);
+        assertEquals("user", cachedName());
+    }
+
+    @Test
+    void updateIsCachedAfterCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.updateUser(userId, UserDto.builder().name("renamed").build());
+            assertEquals("user", cachedName());
+        });
+
+        assertEquals("renamed", cachedName());
+        assertEquals("renamed", userService.getUserById(userId).getName());
+    }
+
+    @Test
+    void rollbackKeepsCachedEntry() {
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.updateUser(userId, UserDto.builder().name("renamed").build());
+            status.setRollbackOnly();
+        });
+
+        assertEquals("user", cachedName());
+        assertEquals("user", userService.getUserById(userId).getName());
+    }
+
+    @Test
+    void readStartedBeforeUpdateDoesNotCacheStaleRow() {
+        cache.evict(userId);
+        readOnly().executeWithoutResult(status -> {
+            assertEquals("user", userCache.get(userId).orElseThrow().name());
+            requiresNew().executeWithoutResult(inner ->
+                    userService.updateUser(userId, UserDto.builder().name("renamed").build()));
+            assertEquals("renamed", userCache.get(userId).orElseThrow().name());
+        });
+
+        assertEquals("renamed", cachedName());
+    }
+
+    @Test
+    void deletedUserIsNotFoundThroughCache() {
+        readOnly().executeWithoutResult(status -> {
+            userCache.get(userId);
+            requiresNew().executeWithoutResult(inner -> userService.deleteUser(userId));
+            assertTrue(userCache.get(userId).isEmpty());
+        });
+
+        assertThrows(NotFoundException.class, () -> userService.getUserById(userId));
+    }
+
+    @Test
+    void updateSendsSuppliedFieldsEvenIfCachedCopyMatches() {
+        // Строка изменена в обход сервиса: в кеше осталось прежнее имя
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.updateFields(userId, "changed elsewhere", null));
+        assertEquals("user", cachedName());
+
+        userService.updateUser(userId, UserDto.builder().name("user").build());
+
+        assertEquals("user", userRepository.findSnapshotById(userId).orElseThrow().name());
+        assertEquals("user", cachedName());
+    }
+
+    @Test
+    void responseIsBuiltFromUpdatedRow() {
+        // Имя изменено в обход сервиса, в кеше прежнее: ответ на смену email берет имя из строки
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.updateFields(userId, "changed elsewhere", null));
+        String email = "new" + System.nanoTime() + "@mail.ru";
+
+        UserDto response = userService.updateUser(userId, UserDto.builder().email(email).build());
+
+        assertEquals("changed elsewhere", response.getName());
+        assertEquals(email, response.getEmail());
+        assertEquals("changed elsewhere", cachedName());
+    }
+
+    @Test
+    void hitsAndMissesAreVisibleInActuator() throws Exception {
+        double hits = cacheGets("hit");
+        double misses = cacheGets("miss");
+
+        userService.getUserById(userId);
+        cache.evict(userId);
+        userService.getUserById(userId);
+
+        assertEquals(hits + 1, cacheGets("hit"));
+        assertEquals(misses + 1, cacheGets("miss"));
+    }
+
+    private String cachedName() {
+        return ((UserSnapshot) cache.get(userId).get()).name();
+    }
+
+    private double cacheGets(String result) throws Exception {
+        String body = mockMvc.perform(get("/actuator/metrics/cache.gets")
+                        .param("tag", "cache:" + CacheConfig.USERS_CACHE)
+                        .param("tag", "result:" + result))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode measurements = objectMapper.readTree(body).get("measurements");
+        return measurements.get(0).get("value").asDouble();
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private TransactionTemplate requiresNew() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}